@@ -0,0 +1,37 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. It accepts the same arguments as the standard JMH launcher, but always runs
+ * the benchmarks with the GC profiler (as if {@code -prof gc} was given), so that the allocation rate per operation is
+ * reported alongside throughput.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        boolean hasGcProfiler = commandLine.getProfilers().stream()
+            .anyMatch(profiler -> profiler.getKlass().equals("gc")
+                || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!hasGcProfiler) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,88 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures setting and reading back 10,000 unions of String | int | double, holding runs of 16 values of the same type,
+// one element at a time with setValue and getInt, against the bulk setAll, classify and extractInts.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkBenchmark {
+    private static final int LENGTH = 10_000;
+
+    private UnionSchema schema;
+    private Union[] unions;
+    private Object[] values;
+    private byte[] tags;
+    private int[] ints;
+
+    @Setup
+    public void setup() {
+        schema = UnionSchema.of(String.class, int.class, double.class);
+        unions = new Union[LENGTH];
+        values = new Object[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            unions[i] = Union.ofSchema(schema);
+            switch ((i / 16) % 3) {
+                case 0 -> values[i] = "value" + i;
+                case 1 -> values[i] = i;
+                default -> values[i] = i * 0.5;
+            }
+        }
+        tags = new byte[LENGTH];
+        ints = new int[LENGTH];
+        Union.setAll(unions, values);
+    }
+
+    @Benchmark
+    public Union[] setValueLoop() {
+        for (int i = 0; i < LENGTH; i++) {
+            unions[i].setValue(values[i]);
+        }
+        return unions;
+    }
+
+    @Benchmark
+    public Union[] setAll() {
+        Union.setAll(unions, values);
+        return unions;
+    }
+
+    @Benchmark
+    public byte[] classify() {
+        schema.classify(values, tags);
+        return tags;
+    }
+
+    @Benchmark
+    public int getIntLoop() {
+        int count = 0;
+        for (Union union : unions) {
+            if (union.getTag() == 1) {
+                ints[count++] = union.getInt();
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int extractInts() {
+        return Union.extractInts(unions, ints, 1);
+    }
+}
@@ -0,0 +1,78 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Types;
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionCodec;
+import net.jonathangiles.test.union.UnionSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures encoding and decoding an int | double | String | List<String> union with UnionCodec to and from a reused
+// heap ByteBuffer, for each member.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    @Param({"int", "double", "String", "List"})
+    public String member;
+
+    private UnionCodec codec;
+    private Union union;
+    private Union decoded;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        UnionSchema schema = UnionSchema.of(int.class, double.class, String.class,
+            Types.parameterized(List.class, String.class));
+        codec = UnionCodec.of(schema);
+        union = Union.ofSchema(schema);
+        decoded = Union.ofSchema(schema);
+        switch (member) {
+            case "int" -> union.setInt(1_000_000);
+            case "double" -> union.setDouble(Math.PI);
+            case "String" -> union.setValue("The quick brown fox jumps over the lazy dog");
+            default -> {
+                List<String> strings = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    strings.add("element-" + i);
+                }
+                union.setValue(strings);
+            }
+        }
+        buffer = ByteBuffer.allocate(1024);
+    }
+
+    @Benchmark
+    public ByteBuffer write() {
+        buffer.clear();
+        codec.write(union, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Union writeAndRead() {
+        buffer.clear();
+        codec.write(union, buffer);
+        buffer.flip();
+        codec.read(buffer, decoded);
+        return decoded;
+    }
+}
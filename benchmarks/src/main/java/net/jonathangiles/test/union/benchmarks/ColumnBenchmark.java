@@ -0,0 +1,69 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionColumn;
+import net.jonathangiles.test.union.UnionSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares scanning the int | float | double union from the PrimitiveUnionType sample held as a Union[] with holding it
+// in a UnionColumn, summing every element as a double. Elements alternate between the int and double members.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private Union[] unions;
+    private UnionColumn column;
+
+    @Setup
+    public void setup() {
+        UnionSchema schema = UnionSchema.of(int.class, float.class, double.class);
+        unions = new Union[size];
+        column = UnionColumn.allocate(schema, size);
+        for (int i = 0; i < size; i++) {
+            unions[i] = Union.ofSchema(schema);
+            if (i % 2 == 0) {
+                unions[i].setInt(i);
+                column.setInt(i, i);
+            } else {
+                unions[i].setDouble(i);
+                column.setDouble(i, i);
+            }
+        }
+    }
+
+    @Benchmark
+    public double sumUnionArray() {
+        double sum = 0;
+        for (Union union : unions) {
+            sum += union.getTag() == 0 ? union.getInt() : union.getDouble();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sumColumn() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += column.getTag(i) == 0 ? column.getInt(i) : column.getDouble(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,96 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.ParameterizedTypeImpl;
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionSchema;
+import net.jonathangiles.test.union.ValidationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Measures generic validation for the List<String> | List<Integer> | List<Float> union from the GenericModelType
+// sample, across list sizes and validation modes. The value is a List<Float>, so it is matched by the last member,
+// except under TRUSTED, where only the raw List is checked and the first member matches without looking at any element;
+// setValue returns the tag so the member matched in each mode is part of the result. getValueVarargs reads the value
+// back with getValue(List.class, Float.class), which looks up the interned type.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenericListBenchmark {
+    private static final ParameterizedTypeImpl LIST_OF_STRING = new ParameterizedTypeImpl(List.class, String.class);
+    private static final ParameterizedTypeImpl LIST_OF_INTEGER = new ParameterizedTypeImpl(List.class, Integer.class);
+    private static final ParameterizedTypeImpl LIST_OF_FLOAT = new ParameterizedTypeImpl(List.class, Float.class);
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"FULL", "SAMPLED", "HEAD", "TRUSTED"})
+    public String validationMode;
+
+    private Union union;
+    private List<Float> floats;
+    private Consumer<List<Float>> floatsConsumer;
+    private Consumer<List<Integer>> integersConsumer;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        ValidationMode mode = switch (validationMode) {
+            case "SAMPLED" -> ValidationMode.sampled(16);
+            case "HEAD" -> ValidationMode.HEAD;
+            case "TRUSTED" -> ValidationMode.TRUSTED;
+            default -> ValidationMode.FULL;
+        };
+        union = Union.ofSchema(UnionSchema.of(mode, LIST_OF_STRING, LIST_OF_INTEGER, LIST_OF_FLOAT));
+
+        floats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            floats.add((float) i);
+        }
+        union.setValue(floats);
+        floatsConsumer = blackhole::consume;
+        integersConsumer = blackhole::consume;
+    }
+
+    @Benchmark
+    public int setValue() {
+        union.setValue(floats);
+        return union.getTag();
+    }
+
+    @Benchmark
+    public List<Float> getValueVerifiedType() {
+        return union.getValue(LIST_OF_FLOAT);
+    }
+
+    @Benchmark
+    public List<Float> getValueVarargs() {
+        return union.getValue(List.class, Float.class);
+    }
+
+    @Benchmark
+    public boolean tryConsumeVerifiedType() {
+        return union.tryConsume(floatsConsumer, LIST_OF_FLOAT);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOtherType() {
+        return union.tryConsume(integersConsumer, LIST_OF_INTEGER);
+    }
+}
@@ -0,0 +1,62 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Types;
+import net.jonathangiles.test.union.Union;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures Union.setValue of a plain and a generic value with UnionMetrics disabled, as it is by default, and in a fork
+// with metrics enabled, to show the cost of the instrumentation in each case.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    private Union union;
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        union = Union.ofTypes(String.class, Types.parameterized(List.class, Integer.class));
+        list = List.of(1, 2, 3, 4, 5, 6, 7, 8);
+    }
+
+    @Benchmark
+    public Union setPlain() {
+        union.setValue("Hello");
+        return union;
+    }
+
+    @Benchmark
+    public Union setGeneric() {
+        union.setValue(list);
+        return union;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnet.jonathangiles.union.metrics=true")
+    public Union setPlainWithMetrics() {
+        union.setValue("Hello");
+        return union;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnet.jonathangiles.union.metrics=true")
+    public Union setGenericWithMetrics() {
+        union.setValue(list);
+        return union;
+    }
+}
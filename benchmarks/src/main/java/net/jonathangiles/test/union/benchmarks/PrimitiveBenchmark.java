@@ -0,0 +1,71 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares primitive and boxed members, using the int | float | double union from the PrimitiveUnionType sample and
+// the equivalent union of wrapper types. The value changes on every write, so that boxing cannot be served from the
+// Integer cache.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitiveBenchmark {
+    private Union primitiveUnion;
+    private Union boxedUnion;
+    private int next;
+
+    @Setup
+    public void setup() {
+        primitiveUnion = Union.ofTypes(int.class, float.class, double.class);
+        boxedUnion = Union.ofTypes(Integer.class, Float.class, Double.class);
+        primitiveUnion.setInt(1_000_000);
+        boxedUnion.setValue(1_000_000);
+    }
+
+    @Benchmark
+    public Union primitiveSetInt() {
+        primitiveUnion.setInt(next++);
+        return primitiveUnion;
+    }
+
+    @Benchmark
+    public Union primitiveSetValue() {
+        primitiveUnion.setValue(next++);
+        return primitiveUnion;
+    }
+
+    @Benchmark
+    public Union boxedSetValue() {
+        boxedUnion.setValue(next++);
+        return boxedUnion;
+    }
+
+    @Benchmark
+    public int primitiveGetInt() {
+        return primitiveUnion.getInt();
+    }
+
+    @Benchmark
+    public int primitiveGetValueClass() {
+        return primitiveUnion.getValue(int.class);
+    }
+
+    @Benchmark
+    public int boxedGetValueClass() {
+        return boxedUnion.getValue(Integer.class);
+    }
+}
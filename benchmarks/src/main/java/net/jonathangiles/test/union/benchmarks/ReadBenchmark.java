@@ -0,0 +1,82 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionBinder;
+import net.jonathangiles.test.union.UnionMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Measures reading a value back out of the String | Integer | Double union from the ModelType sample, through
+// getValue(Class), tryConsume and a prebuilt UnionBinder binding (each for both a matching and a non-matching expected
+// type) and a prebuilt UnionMatcher.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReadBenchmark {
+    private Union union;
+    private Consumer<Integer> integerConsumer;
+    private Consumer<String> stringConsumer;
+    private UnionBinder.Binding<Integer> integerBinding;
+    private UnionBinder.Binding<String> stringBinding;
+    private UnionMatcher<Integer> matcher;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        union = Union.ofTypes(String.class, Integer.class, Double.class);
+        union.setValue(1_000_000);
+        integerConsumer = blackhole::consume;
+        stringConsumer = blackhole::consume;
+        integerBinding = Union.binder(Integer.class).bind(integerConsumer);
+        stringBinding = Union.binder(String.class).bind(stringConsumer);
+        matcher = UnionMatcher.<Integer>builder(union.getSchema())
+            .on(String.class, String::length)
+            .on(Integer.class, i -> i)
+            .on(Double.class, Double::intValue)
+            .build();
+    }
+
+    @Benchmark
+    public Integer getValueClass() {
+        return union.getValue(Integer.class);
+    }
+
+    @Benchmark
+    public boolean tryConsumeMatch() {
+        return union.tryConsume(integerConsumer, Integer.class);
+    }
+
+    @Benchmark
+    public boolean tryConsumeMismatch() {
+        return union.tryConsume(stringConsumer, String.class);
+    }
+
+    @Benchmark
+    public boolean bindingMatch() {
+        return integerBinding.tryConsume(union);
+    }
+
+    @Benchmark
+    public boolean bindingMismatch() {
+        return stringBinding.tryConsume(union);
+    }
+
+    @Benchmark
+    public Integer match() {
+        return union.match(matcher);
+    }
+}
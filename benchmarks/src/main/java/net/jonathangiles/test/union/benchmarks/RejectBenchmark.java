@@ -0,0 +1,71 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Measures accepting a value with Union.setValue against rejecting one by catching the exception of setValue, with and
+// without stackless rejection, and by checking the result of trySetValue.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RejectBenchmark {
+    private Union union;
+    private Union stackless;
+    private Object valid;
+    private Object invalid;
+
+    @Setup
+    public void setup() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class);
+        union = Union.ofSchema(schema);
+        stackless = Union.ofSchema(schema.withStacklessRejection(true));
+        valid = "Hello";
+        invalid = 3.14;
+    }
+
+    @Benchmark
+    public Union accept() {
+        union.setValue(valid);
+        return union;
+    }
+
+    @Benchmark
+    public Object rejectWithException() {
+        try {
+            union.setValue(invalid);
+            return union;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object rejectWithStacklessException() {
+        try {
+            stackless.setValue(invalid);
+            return stackless;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public int rejectWithTrySetValue() {
+        return union.trySetValue(invalid);
+    }
+}
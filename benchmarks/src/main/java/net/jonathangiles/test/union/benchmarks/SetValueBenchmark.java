@@ -0,0 +1,69 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Measures Union.setValue for unions of an increasing number of declared types, setting a value that matches either
+// the first or the last declared type, with and without adaptive dispatch.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetValueBenchmark {
+    private static final Type[] TYPES = {
+        String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class, Character.class,
+        Boolean.class, BigInteger.class, BigDecimal.class, LocalDate.class, UUID.class, StringBuilder.class,
+        AtomicInteger.class, AtomicLong.class
+    };
+    private static final Object[] VALUES = {
+        "Hello", 42, 42L, 3.14, 3.14f, (short) 42, (byte) 42, 'c', true, BigInteger.TEN, BigDecimal.TEN,
+        LocalDate.of(2024, 1, 1), new UUID(1, 2), new StringBuilder("Hello"), new AtomicInteger(42), new AtomicLong(42)
+    };
+
+    @Param({"2", "4", "8", "16"})
+    public int typeCount;
+
+    @Param({"FIRST", "LAST"})
+    public String position;
+
+    @Param({"false", "true"})
+    public boolean adaptive;
+
+    private Union union;
+    private Object value;
+
+    @Setup
+    public void setup() {
+        union = Union.ofSchema(UnionSchema.of(Arrays.copyOf(TYPES, typeCount)).withAdaptiveDispatch(adaptive));
+        value = "FIRST".equals(position) ? VALUES[0] : VALUES[typeCount - 1];
+    }
+
+    @Benchmark
+    public Union setValue() {
+        union.setValue(value);
+        return union;
+    }
+}
@@ -0,0 +1,81 @@
+package net.jonathangiles.test.union.benchmarks;
+
+import net.jonathangiles.test.union.ParameterizedTypeImpl;
+import net.jonathangiles.test.union.Union;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures rendering unions with toString, and with formatTo into a reused StringBuilder, for plain, primitive and
+// generic members.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ToStringBenchmark {
+    private Union classUnion;
+    private Union primitiveUnion;
+    private Union genericUnion;
+    private StringBuilder sb;
+
+    @Setup
+    public void setup() {
+        classUnion = Union.ofTypes(String.class, Integer.class, Double.class);
+        classUnion.setValue("Hello");
+
+        primitiveUnion = Union.ofTypes(int.class, float.class, double.class);
+        primitiveUnion.setInt(42);
+
+        genericUnion = Union.ofTypes(
+            new ParameterizedTypeImpl(List.class, String.class),
+            new ParameterizedTypeImpl(List.class, Integer.class),
+            new ParameterizedTypeImpl(List.class, Float.class));
+        genericUnion.setValue(List.of(1.0f, 2.0f, 3.0f));
+        sb = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String classToString() {
+        return classUnion.toString();
+    }
+
+    @Benchmark
+    public String primitiveToString() {
+        return primitiveUnion.toString();
+    }
+
+    @Benchmark
+    public String genericToString() {
+        return genericUnion.toString();
+    }
+
+    @Benchmark
+    public StringBuilder classFormatTo() {
+        sb.setLength(0);
+        return classUnion.formatTo(sb);
+    }
+
+    @Benchmark
+    public StringBuilder primitiveFormatTo() {
+        sb.setLength(0);
+        return primitiveUnion.formatTo(sb);
+    }
+
+    @Benchmark
+    public StringBuilder genericFormatTo() {
+        sb.setLength(0);
+        return genericUnion.formatTo(sb);
+    }
+}
@@ -0,0 +1,119 @@
+package net.jonathangiles.test.union.processor;
+
+import java.util.List;
+
+/**
+ * Writes the source of the sealed interface variant of a {@link UnionModel}, which has one record per member.
+ *
+ * <p>Where the class written by {@link UnionClassWriter} is a compact value that is dispatched by its tag, the
+ * sealed interface is intended for {@code switch} pattern matching, where the closed hierarchy lets the compiler check
+ * exhaustiveness and lets the JIT profile the (few) record classes that reach each call site:</p>
+ *
+ * <pre>
+ * switch (ModelTypeProp1Variant.fromUnion(union)) {
+ *     case ModelTypeProp1Variant.OfString(String s) -&gt; ...
+ *     case ModelTypeProp1Variant.OfInteger(Integer i) -&gt; ...
+ *     case ModelTypeProp1Variant.OfDouble(Double d) -&gt; ...
+ * }
+ * </pre>
+ *
+ * <p>Records of primitive members have a primitive component, so converting from a {@code Union} holding a primitive
+ * member does not box the value.</p>
+ */
+final class SealedUnionWriter {
+    private final UnionModel model;
+    private final String interfaceName;
+    private final StringBuilder sb = new StringBuilder();
+
+    SealedUnionWriter(UnionModel model) {
+        this.model = model;
+        this.interfaceName = interfaceName(model);
+    }
+
+    static String interfaceName(UnionModel model) {
+        return model.baseName() + "Variant";
+    }
+
+    static String recordName(UnionModel.Member member) {
+        return "Of" + member.name();
+    }
+
+    String write() {
+        List<UnionModel.Member> members = model.members();
+        if (!model.packageName().isEmpty()) {
+            line("package " + model.packageName() + ";");
+            line("");
+        }
+
+        line("/**");
+        line(" * A sealed union of " + model.describeMembers() + ", generated from {@code " + model.source() + "},");
+        line(" * with one record per member for use with {@code switch} pattern matching.");
+        line(" */");
+        line("@javax.annotation.processing.Generated(\"" + UnionTypesProcessor.class.getName() + "\")");
+        line("public sealed interface " + interfaceName + " {");
+        line("    " + UnionModel.UNION_SCHEMA + " SCHEMA = " + UnionModel.UNION_SCHEMA + ".of("
+            + model.classLiterals() + ");");
+        line("");
+        line("    /**");
+        line("     * Returns the index of this member's type in {@link #SCHEMA}.");
+        line("     */");
+        line("    int tag();");
+        line("");
+        line("    " + UnionModel.UNION + " toUnion();");
+        line("");
+        line("    /**");
+        line("     * Returns the record for the current value of the given union.");
+        line("     *");
+        line("     * @throws java.lang.IllegalArgumentException If the union is not of {@link #SCHEMA}.");
+        line("     * @throws java.lang.IllegalStateException If the union has no value.");
+        line("     */");
+        line("    static " + interfaceName + " fromUnion(" + UnionModel.UNION + " union) {");
+        line("        if (union.getSchema() != SCHEMA) {");
+        line("            throw new java.lang.IllegalArgumentException(\"Union of \" + union.getSchema()");
+        line("                + \" cannot be converted to " + interfaceName + "\");");
+        line("        }");
+        line("        switch (union.getTag()) {");
+        for (int i = 0; i < members.size(); i++) {
+            UnionModel.Member member = members.get(i);
+            line("            case " + i + ": return new " + recordName(member) + "(" + member.unionGetter("union")
+                + ");");
+        }
+        line("            default: throw new java.lang.IllegalStateException(\"Union has no value\");");
+        line("        }");
+        line("    }");
+
+        for (int i = 0; i < members.size(); i++) {
+            writeRecord(members.get(i), i);
+        }
+        line("}");
+        return sb.toString();
+    }
+
+    private void writeRecord(UnionModel.Member member, int tag) {
+        String name = recordName(member);
+        line("");
+        line("    record " + name + "(" + member.typeName() + " value) implements " + interfaceName + " {");
+        if (member.primitive() == null) {
+            line("        public " + name + " {");
+            line("            java.util.Objects.requireNonNull(value, \"value\");");
+            line("        }");
+            line("");
+        }
+        line("        @java.lang.Override");
+        line("        public int tag() {");
+        line("            return " + tag + ";");
+        line("        }");
+        line("");
+        line("        @java.lang.Override");
+        line("        public " + UnionModel.UNION + " toUnion() {");
+        line("            return SCHEMA." + (member.primitive() != null
+            ? "newUnionOfBits(" + tag + ", " + member.toBits("value") + ")"
+            : "newUnion(" + tag + ", value)") + ";");
+        line("        }");
+        line("    }");
+    }
+
+    private void line(String s) {
+        sb.append(s).append('\n');
+    }
+}
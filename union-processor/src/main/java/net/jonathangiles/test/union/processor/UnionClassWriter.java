@@ -0,0 +1,214 @@
+package net.jonathangiles.test.union.processor;
+
+import java.util.List;
+
+/**
+ * Writes the source of the specialized union class for a {@link UnionModel}.
+ *
+ * <p>The generated class is an immutable value holding a {@code byte} tag alongside either a reference or, for
+ * primitive members, the raw bits of the value, so primitive values are never boxed. Each member gets a factory
+ * ({@code ofInt(int)}), a test ({@code isInt()}) and a typed accessor ({@code getInt()}), and the class exposes a
+ * {@code Visitor} that is dispatched with a switch on the tag. Instances convert to and from {@code Union} through
+ * the generated {@code SCHEMA}, which is the same interned schema that {@code Union.ofTypes} would use for the
+ * declared types.</p>
+ */
+final class UnionClassWriter {
+    private final UnionModel model;
+    private final String className;
+    private final StringBuilder sb = new StringBuilder();
+
+    UnionClassWriter(UnionModel model) {
+        this.model = model;
+        this.className = className(model);
+    }
+
+    static String className(UnionModel model) {
+        return model.baseName() + "Union";
+    }
+
+    String write() {
+        List<UnionModel.Member> members = model.members();
+        if (!model.packageName().isEmpty()) {
+            line("package " + model.packageName() + ";");
+            line("");
+        }
+
+        line("/**");
+        line(" * A union of " + model.describeMembers() + ", generated from {@code " + model.source() + "}.");
+        line(" */");
+        line("@javax.annotation.processing.Generated(\"" + UnionTypesProcessor.class.getName() + "\")");
+        line("public final class " + className + " {");
+        for (int i = 0; i < members.size(); i++) {
+            line("    public static final byte " + members.get(i).tagConstant() + " = " + i + ";");
+        }
+        line("");
+        line("    public static final " + UnionModel.UNION_SCHEMA + " SCHEMA = " + UnionModel.UNION_SCHEMA + ".of("
+            + model.classLiterals() + ");");
+        line("");
+        line("    private final byte tag;");
+        line("    private final java.lang.Object ref;");
+        line("    private final long bits;");
+        line("");
+        line("    private " + className + "(byte tag, java.lang.Object ref, long bits) {");
+        line("        this.tag = tag;");
+        line("        this.ref = ref;");
+        line("        this.bits = bits;");
+        line("    }");
+
+        for (UnionModel.Member member : members) {
+            writeMember(member);
+        }
+
+        writeCommon(members);
+        writeVisitor(members);
+        writeConversions(members);
+        writeObjectMethods();
+        line("}");
+        return sb.toString();
+    }
+
+    private void writeMember(UnionModel.Member member) {
+        String type = member.typeName();
+        String name = member.name();
+        String tag = member.tagConstant();
+        line("");
+        line("    public static " + className + " of" + name + "(" + type + " value) {");
+        if (member.primitive() != null) {
+            line("        return new " + className + "(" + tag + ", null, " + member.toBits("value") + ");");
+        } else {
+            line("        return new " + className + "(" + tag
+                + ", java.util.Objects.requireNonNull(value, \"value\"), 0L);");
+        }
+        line("    }");
+        line("");
+        line("    public boolean is" + name + "() {");
+        line("        return tag == " + tag + ";");
+        line("    }");
+        line("");
+        line("    public " + type + " get" + name + "() {");
+        line("        if (tag != " + tag + ") {");
+        line("            throw new java.lang.IllegalStateException(\"Value is not of type: " + type + "\");");
+        line("        }");
+        line("        return " + read(member) + ";");
+        line("    }");
+    }
+
+    private void writeCommon(List<UnionModel.Member> members) {
+        line("");
+        line("    public byte getTag() {");
+        line("        return tag;");
+        line("    }");
+        line("");
+        line("    public java.lang.reflect.Type getType() {");
+        line("        return SCHEMA.getType(tag);");
+        line("    }");
+        line("");
+        line("    /**");
+        line("     * Returns the value of this union, boxing it if the current member is primitive.");
+        line("     */");
+        line("    public java.lang.Object getValue() {");
+        line("        switch (tag) {");
+        for (UnionModel.Member member : members) {
+            if (member.primitive() != null) {
+                line("            case " + member.tagConstant() + ": return " + read(member) + ";");
+            }
+        }
+        line("            default: return ref;");
+        line("        }");
+        line("    }");
+    }
+
+    private void writeVisitor(List<UnionModel.Member> members) {
+        line("");
+        line("    /**");
+        line("     * A visitor with one method per member of the union, so that implementations are checked by the");
+        line("     * compiler to handle every member.");
+        line("     */");
+        line("    public interface Visitor<R> {");
+        for (int i = 0; i < members.size(); i++) {
+            UnionModel.Member member = members.get(i);
+            line((i == 0 ? "" : "\n") + "        R visit" + member.name() + "(" + member.typeName() + " value);");
+        }
+        line("    }");
+        line("");
+        line("    public <R> R accept(Visitor<R> visitor) {");
+        line("        switch (tag) {");
+        for (UnionModel.Member member : members) {
+            line("            case " + member.tagConstant() + ": return visitor.visit" + member.name() + "("
+                + read(member) + ");");
+        }
+        line("            default: throw new java.lang.AssertionError(tag);");
+        line("        }");
+        line("    }");
+    }
+
+    private void writeConversions(List<UnionModel.Member> members) {
+        line("");
+        line("    /**");
+        line("     * Returns a union of {@link #SCHEMA} holding the current value as the same member, even where an earlier");
+        line("     * member would also accept it.");
+        line("     */");
+        line("    public " + UnionModel.UNION + " toUnion() {");
+        line("        switch (tag) {");
+        for (UnionModel.Member member : members) {
+            line("            case " + member.tagConstant() + ": return SCHEMA."
+                + (member.primitive() != null ? "newUnionOfBits(tag, bits)" : "newUnion(tag, ref)") + ";");
+        }
+        line("            default: throw new java.lang.AssertionError(tag);");
+        line("        }");
+        line("    }");
+        line("");
+        line("    /**");
+        line("     * Creates an instance holding the current value of the given union.");
+        line("     *");
+        line("     * @throws java.lang.IllegalArgumentException If the union is not of {@link #SCHEMA}.");
+        line("     * @throws java.lang.IllegalStateException If the union has no value.");
+        line("     */");
+        line("    public static " + className + " fromUnion(" + UnionModel.UNION + " union) {");
+        line("        if (union.getSchema() != SCHEMA) {");
+        line("            throw new java.lang.IllegalArgumentException(\"Union of \" + union.getSchema()");
+        line("                + \" cannot be converted to " + className + "\");");
+        line("        }");
+        line("        switch (union.getTag()) {");
+        for (UnionModel.Member member : members) {
+            line("            case " + member.tagConstant() + ": return of" + member.name() + "("
+                + member.unionGetter("union") + ");");
+        }
+        line("            default: throw new java.lang.IllegalStateException(\"Union has no value\");");
+        line("        }");
+        line("    }");
+    }
+
+    private void writeObjectMethods() {
+        line("");
+        line("    @java.lang.Override");
+        line("    public boolean equals(java.lang.Object o) {");
+        line("        if (this == o) {");
+        line("            return true;");
+        line("        }");
+        line("        if (!(o instanceof " + className + " other)) {");
+        line("            return false;");
+        line("        }");
+        line("        return tag == other.tag && bits == other.bits && java.util.Objects.equals(ref, other.ref);");
+        line("    }");
+        line("");
+        line("    @java.lang.Override");
+        line("    public int hashCode() {");
+        line("        return 31 * (31 * tag + java.lang.Long.hashCode(bits)) + java.util.Objects.hashCode(ref);");
+        line("    }");
+        line("");
+        line("    @java.lang.Override");
+        line("    public java.lang.String toString() {");
+        line("        return \"" + className
+            + "{type=\" + getType().getTypeName() + \", value=\" + getValue() + \"}\";");
+        line("    }");
+    }
+
+    private static String read(UnionModel.Member member) {
+        return member.primitive() != null ? member.fromBits("bits") : "(" + member.typeName() + ") ref";
+    }
+
+    private void line(String s) {
+        sb.append(s).append('\n');
+    }
+}
@@ -0,0 +1,157 @@
+package net.jonathangiles.test.union.processor;
+
+import java.util.List;
+
+/**
+ * The description of a union to generate code for: where the generated types go, and the members of the union in
+ * declaration order.
+ */
+final class UnionModel {
+    static final String UNION = "net.jonathangiles.test.union.Union";
+    static final String UNION_SCHEMA = "net.jonathangiles.test.union.UnionSchema";
+
+    private final String packageName;
+    private final String baseName;
+    private final String source;
+    private final List<Member> members;
+
+    UnionModel(String packageName, String baseName, String source, List<Member> members) {
+        this.packageName = packageName;
+        this.baseName = baseName;
+        this.source = source;
+        this.members = members;
+    }
+
+    /**
+     * The package the generated types are placed in, or an empty string for the unnamed package.
+     */
+    String packageName() {
+        return packageName;
+    }
+
+    /**
+     * The name that the generated types are derived from, such as {@code ModelTypeProp1}.
+     */
+    String baseName() {
+        return baseName;
+    }
+
+    /**
+     * A human readable description of where the union was declared, such as {@code ModelType.getProp1()}.
+     */
+    String source() {
+        return source;
+    }
+
+    List<Member> members() {
+        return members;
+    }
+
+    /**
+     * Returns a Javadoc fragment listing the member types, such as {@code {@code int}, {@code float} and
+     * {@code double}}.
+     */
+    String describeMembers() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < members.size(); i++) {
+            if (i > 0) {
+                description.append(i == members.size() - 1 ? " and " : ", ");
+            }
+            description.append("{@code ").append(members.get(i).typeName()).append('}');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Returns the member types as a comma separated list of class literals, as passed to {@code UnionSchema.of}.
+     */
+    String classLiterals() {
+        StringBuilder types = new StringBuilder();
+        for (Member member : members) {
+            types.append(types.length() == 0 ? "" : ", ").append(member.typeName()).append(".class");
+        }
+        return types.toString();
+    }
+
+    String qualify(String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * A single member of a union.
+     *
+     * @param typeName The name of the member type as it appears in source, such as {@code java.lang.String} or
+     *                 {@code int[]}.
+     * @param name The name used for the member in generated identifiers, such as {@code String} or {@code IntArray}.
+     * @param primitive The primitive kind of the member, such as {@code int}, or null if it is not primitive.
+     */
+    record Member(String typeName, String name, String primitive) {
+        String tagConstant() {
+            StringBuilder sb = new StringBuilder("TAG_");
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(name.charAt(i - 1))) {
+                    sb.append('_');
+                }
+                sb.append(Character.toUpperCase(c));
+            }
+            return sb.toString();
+        }
+
+        /**
+         * The type of the member once boxed, which is the member type itself unless it is primitive.
+         */
+        String boxedTypeName() {
+            if (primitive == null) {
+                return typeName;
+            }
+            switch (primitive) {
+                case "int": return "java.lang.Integer";
+                case "char": return "java.lang.Character";
+                default: return "java.lang." + Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+            }
+        }
+
+        /**
+         * Returns a source expression reading the value of this member from the {@code Union} expression
+         * {@code union}.
+         */
+        String unionGetter(String union) {
+            if (primitive == null) {
+                return "(" + typeName + ") " + union + ".getValue()";
+            }
+            switch (primitive) {
+                case "int": return union + ".getInt()";
+                case "long": return union + ".getLong()";
+                case "float": return union + ".getFloat()";
+                case "double": return union + ".getDouble()";
+                default: return "(" + boxedTypeName() + ") " + union + ".getValue()";
+            }
+        }
+
+        /**
+         * Returns a source expression encoding the primitive expression {@code value} into the {@code long} slot.
+         */
+        String toBits(String value) {
+            switch (primitive) {
+                case "float": return "java.lang.Float.floatToRawIntBits(" + value + ")";
+                case "double": return "java.lang.Double.doubleToRawLongBits(" + value + ")";
+                case "boolean": return "(" + value + " ? 1L : 0L)";
+                default: return "(long) " + value;
+            }
+        }
+
+        /**
+         * Returns a source expression decoding the {@code long} slot expression {@code bits} into the primitive value.
+         */
+        String fromBits(String bits) {
+            switch (primitive) {
+                case "long": return bits;
+                case "float": return "java.lang.Float.intBitsToFloat((int) " + bits + ")";
+                case "double": return "java.lang.Double.longBitsToDouble(" + bits + ")";
+                case "boolean": return "(" + bits + " != 0L)";
+                default: return "(" + primitive + ") " + bits;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package net.jonathangiles.test.union.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor that generates a specialized, reflection-free union class, and a sealed interface with one
+ * record per member, for every method or field annotated with {@code @UnionTypes}.
+ *
+ * <p>The annotation is matched by name, so this processor has no dependency on the union library itself (which would
+ * otherwise be circular, as the library's own samples are processed by it). The generated code does depend on the
+ * library, to convert to and from {@code Union}.</p>
+ *
+ * @see UnionClassWriter
+ * @see SealedUnionWriter
+ */
+@SupportedAnnotationTypes(UnionTypesProcessor.UNION_TYPES)
+public final class UnionTypesProcessor extends AbstractProcessor {
+    static final String UNION_TYPES = "net.jonathangiles.test.union.UnionTypes";
+
+    // the maximum number of members, so that a member's tag always fits in a byte
+    private static final int MAX_MEMBERS = Byte.MAX_VALUE;
+
+    // the names of members whose getters would clash with getTag(), getType() and getValue() of the generated class
+    private static final Set<String> RESERVED_NAMES = Set.of("Tag", "Type", "Value");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                UnionModel model = toModel(element);
+                if (model != null) {
+                    write(model, element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private UnionModel toModel(Element element) {
+        Messager messager = processingEnv.getMessager();
+        if (element.getKind() != ElementKind.METHOD && element.getKind() != ElementKind.FIELD) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@UnionTypes may only be applied to methods and fields",
+                element);
+            return null;
+        }
+
+        AnnotationMirror mirror = findAnnotation(element);
+        List<TypeMirror> types = new ArrayList<>();
+        String name = "";
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            if (attribute.equals("value")) {
+                for (Object value : (List<?>) entry.getValue().getValue()) {
+                    types.add((TypeMirror) ((AnnotationValue) value).getValue());
+                }
+            } else if (attribute.equals("name")) {
+                name = (String) entry.getValue().getValue();
+            }
+        }
+
+        if (types.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@UnionTypes must declare at least one type", element, mirror);
+            return null;
+        }
+        if (types.size() > MAX_MEMBERS) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                "@UnionTypes may declare at most " + MAX_MEMBERS + " types", element, mirror);
+            return null;
+        }
+
+        TypeElement declaringType = (TypeElement) element.getEnclosingElement();
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(declaringType);
+        String baseName = name.isEmpty() ? deriveBaseName(declaringType, element) : name;
+        if (!SourceVersion.isIdentifier(baseName) || SourceVersion.isKeyword(baseName)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Invalid union name: " + baseName, element, mirror);
+            return null;
+        }
+        String source = declaringType.getSimpleName() + "." + element.getSimpleName()
+            + (element.getKind() == ElementKind.METHOD ? "()" : "");
+        List<UnionModel.Member> members = toMembers(types, element, mirror);
+        return members == null ? null
+            : new UnionModel(pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString(), baseName, source, members);
+    }
+
+    private List<UnionModel.Member> toMembers(List<TypeMirror> types, Element element, AnnotationMirror mirror) {
+        List<String> names = new ArrayList<>();
+        for (TypeMirror type : types) {
+            names.add(memberName(type, false));
+        }
+        // fall back to qualified names for members whose simple names clash, such as float.class and Float.class, or
+        // whose getter would clash with one generated for every union, such as getType() for java.lang.reflect.Type
+        Set<String> seen = new HashSet<>();
+        Set<String> clashing = new HashSet<>(RESERVED_NAMES);
+        for (String name : names) {
+            if (!seen.add(name)) {
+                clashing.add(name);
+            }
+        }
+
+        List<UnionModel.Member> members = new ArrayList<>();
+        Set<String> typeNames = new HashSet<>();
+        for (int i = 0; i < types.size(); i++) {
+            TypeMirror type = processingEnv.getTypeUtils().erasure(types.get(i));
+            String name = clashing.contains(names.get(i)) ? memberName(type, true) : names.get(i);
+            if (RESERVED_NAMES.contains(name)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Type " + type + " cannot be a member, as its name clashes with get" + name + "()", element,
+                    mirror);
+                return null;
+            }
+            if (!typeNames.add(type.toString())) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Type " + type + " is declared more than once", element, mirror);
+                return null;
+            }
+            String primitive = type.getKind().isPrimitive() ? type.toString() : null;
+            members.add(new UnionModel.Member(type.toString(), name, primitive));
+        }
+        return members;
+    }
+
+    private String memberName(TypeMirror type, boolean qualified) {
+        if (type.getKind().isPrimitive()) {
+            return capitalize(type.toString());
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return memberName(((ArrayType) type).getComponentType(), qualified) + "Array";
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+            if (!qualified) {
+                return capitalize(typeElement.getSimpleName().toString());
+            }
+            StringBuilder sb = new StringBuilder();
+            for (String part : typeElement.getQualifiedName().toString().split("\\.")) {
+                sb.append(capitalize(part));
+            }
+            return sb.toString();
+        }
+        return capitalize(type.toString().replaceAll("[^A-Za-z0-9]", ""));
+    }
+
+    private static String deriveBaseName(TypeElement declaringType, Element element) {
+        String memberName = element.getSimpleName().toString();
+        if (element.getKind() == ElementKind.METHOD) {
+            for (String prefix : new String[] { "get", "is" }) {
+                if (memberName.length() > prefix.length() && memberName.startsWith(prefix)
+                        && Character.isUpperCase(memberName.charAt(prefix.length()))) {
+                    memberName = memberName.substring(prefix.length());
+                    break;
+                }
+            }
+        }
+        return declaringType.getSimpleName() + capitalize(memberName);
+    }
+
+    private AnnotationMirror findAnnotation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(UNION_TYPES)) {
+                return mirror;
+            }
+        }
+        throw new IllegalStateException("No @UnionTypes annotation on " + element);
+    }
+
+    private void write(UnionModel model, Element element) {
+        write(model.qualify(UnionClassWriter.className(model)), new UnionClassWriter(model).write(), element);
+        write(model.qualify(SealedUnionWriter.interfaceName(model)), new SealedUnionWriter(model).write(), element);
+    }
+
+    private void write(String className, String source, Element element) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, element);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to generate " + className + ": " + e.getMessage(), element);
+        }
+    }
+
+    static String capitalize(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,160 @@
+package net.jonathangiles.test.union;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread-safe {@link Union} that may be read and updated by many threads at once without external locking.
+ *
+ * <p>The value and the declared type it was matched to are held together in a single {@link ImmutableUnion} snapshot,
+ * which is replaced atomically on every update. Callers that need the type and the value to agree should read them
+ * from one {@link #snapshot()} rather than calling {@link #getType()} and {@link #getValue()} separately.</p>
+ *
+ * @see Union
+ * @see ImmutableUnion
+ */
+public final class ConcurrentUnion {
+    private static final VarHandle SNAPSHOT;
+
+    static {
+        try {
+            SNAPSHOT = MethodHandles.lookup().findVarHandle(ConcurrentUnion.class, "snapshot", ImmutableUnion.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final UnionSchema schema;
+    private volatile ImmutableUnion snapshot;
+
+    private ConcurrentUnion(UnionSchema schema) {
+        this.schema = schema;
+        this.snapshot = ImmutableUnion.empty(schema);
+    }
+
+    public static ConcurrentUnion ofTypes(Type... types) {
+        return new ConcurrentUnion(UnionSchema.of(types));
+    }
+
+    public static ConcurrentUnion ofSchema(UnionSchema schema) {
+        return new ConcurrentUnion(Objects.requireNonNull(schema, "schema"));
+    }
+
+    /**
+     * Returns the current value and declared type of this union as a single consistent snapshot.
+     *
+     * @return The current snapshot.
+     */
+    public ImmutableUnion snapshot() {
+        return snapshot;
+    }
+
+    public void setValue(Object value) {
+        snapshot = ImmutableUnion.of(schema, value);
+    }
+
+    /**
+     * Atomically sets the value of this union, returning the snapshot it replaced.
+     *
+     * @param value The new value.
+     * @return The snapshot that was replaced.
+     * @throws IllegalArgumentException If the value is not of any of the declared types.
+     */
+    public ImmutableUnion getAndSet(Object value) {
+        return (ImmutableUnion) SNAPSHOT.getAndSet(this, ImmutableUnion.of(schema, value));
+    }
+
+    /**
+     * Atomically sets the value of this union to {@code newValue} if its current value {@linkplain Object#equals
+     * equals} {@code expectedValue}.
+     *
+     * @param expectedValue The expected current value, which may be null to expect a union with no value.
+     * @param newValue The new value.
+     * @return Returns true if the value was updated, and false if the current value was not the expected value.
+     * @throws IllegalArgumentException If the new value is not of any of the declared types.
+     */
+    public boolean compareAndSet(Object expectedValue, Object newValue) {
+        ImmutableUnion next = ImmutableUnion.of(schema, newValue);
+        while (true) {
+            ImmutableUnion current = snapshot;
+            if (!Objects.equals(current.getValue(), expectedValue)) {
+                return false;
+            }
+            if (SNAPSHOT.compareAndSet(this, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the current snapshot with the result of applying the given function to it. The function may
+     * be applied more than once under contention, so it should be free of side effects.
+     *
+     * @param updateFunction A function computing the next snapshot, typically by calling
+     *                       {@link ImmutableUnion#with(Object)} on the current one.
+     * @return The updated snapshot.
+     * @throws IllegalArgumentException If the function returns a snapshot of a different schema.
+     */
+    public ImmutableUnion updateAndGet(UnaryOperator<ImmutableUnion> updateFunction) {
+        while (true) {
+            ImmutableUnion current = snapshot;
+            ImmutableUnion next = updateFunction.apply(current);
+            if (next.getSchema() != schema) {
+                throw new IllegalArgumentException("Snapshot does not belong to schema: " + schema);
+            }
+            if (SNAPSHOT.compareAndSet(this, current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getValue() {
+        return (T) snapshot.getValue();
+    }
+
+    public Type getType() {
+        return snapshot.getType();
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    public List<Type> getTypes() {
+        return schema.getTypes();
+    }
+
+    @Override
+    public String toString() {
+        return formatTo(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given builder, rendering a single snapshot.
+     *
+     * @param sb The builder to append to.
+     * @return The given builder.
+     * @see ImmutableUnion#formatTo(StringBuilder)
+     */
+    public StringBuilder formatTo(StringBuilder sb) {
+        return snapshot.formatTo(sb, "ConcurrentUnion");
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given {@link Appendable}, rendering a single snapshot.
+     *
+     * @param out The appendable to append to.
+     * @return The given appendable.
+     * @param <A> The type of the appendable.
+     * @throws IOException If the appendable throws it.
+     */
+    public <A extends Appendable> A formatTo(A out) throws IOException {
+        return snapshot.formatTo(out, "ConcurrentUnion");
+    }
+}
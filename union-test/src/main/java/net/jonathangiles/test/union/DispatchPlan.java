@@ -0,0 +1,206 @@
+package net.jonathangiles.test.union;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A plan, compiled once per {@link UnionSchema}, that maps the runtime class of a value to the declared
+ * types of the schema that may accept it.
+ *
+ * <p>For each runtime class the plan records, in declaration order, the indices of the declared types that could
+ * accept a value of that class. Plain {@link Class} types (including primitive types, which accept their wrapper) are
+ * resolved entirely ahead of time, so they always end the candidate list. Generic types, such as parameterized types,
+ * only have their erasure resolved ahead of time, and still need to be checked against the value itself.</p>
+ *
+ * <p>The candidates are computed the first time a runtime class is seen, including an empty list for classes that no
+ * declared type accepts, so a value of an interface or abstract member, such as a {@code String} for a
+ * {@code CharSequence} member, resolves in a single lookup from then on. They are held by the runtime class itself,
+ * through a {@link ClassValue}, so they never keep a class alive, and are unloaded along with it.</p>
+ *
+ * <p>An adaptive plan also keeps a hot slot, holding a class whose values always resolve to the same plain declared
+ * type, which is compared against before the candidates are looked up. The slot is the only mutable state of a plan,
+ * and it only ever caches an answer the candidates would give, so a stale or racy read of it is harmless. The slot
+ * only weakly refers to its class, so it does not keep the class alive either.</p>
+ */
+final class DispatchPlan {
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    /**
+     * Returned by {@link #classify(Class)} when the declared type that a value resolves to depends on the value itself.
+     */
+    static final int VALUE_DEPENDENT = -2;
+
+    // on average, one in this many resolutions that miss the hot slot moves the hot slot to the class that missed, so a
+    // class that dominates the workload soon takes the slot, without writing to the plan on every resolution
+    private static final int PROMOTION_SAMPLE_MASK = 1023;
+
+    private final Type[] types;
+    private final ValidationMode mode;
+    private final boolean adaptive;
+    private final UnionMetrics metrics;
+
+    // the class most likely to be resolved next, if the plan is adaptive
+    private volatile HotClass hot;
+    private final ClassValue<int[]> candidates = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> cls) {
+            return computeCandidates(cls);
+        }
+    };
+
+    DispatchPlan(Type[] types, ValidationMode mode, boolean adaptive, UnionMetrics metrics) {
+        this.types = types;
+        this.mode = mode;
+        this.adaptive = adaptive;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the index of the first declared type that accepts the given value, or -1 if no declared type accepts it.
+     */
+    int resolve(Object value) {
+        return resolve(value, mode);
+    }
+
+    /**
+     * Returns the index of the first declared type that accepts the given value, checking the elements of generic
+     * values with the given mode rather than the plan's own.
+     */
+    int resolve(Object value, ValidationMode mode) {
+        if (UnionMetrics.ENABLED && metrics != null) {
+            return resolveInstrumented(value, mode);
+        }
+        return resolve(value, mode, null);
+    }
+
+    private int resolve(Object value, ValidationMode mode, TypeMatcher.Counter counter) {
+        Class<?> cls = value.getClass();
+        int[] indices;
+        if (adaptive) {
+            int hotIndex = hotIndex(cls);
+            if (hotIndex >= 0) {
+                return hotIndex;
+            }
+            indices = candidates.get(cls);
+            maybePromote(cls, indices);
+        } else {
+            indices = candidates.get(cls);
+        }
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            Type type = types[index];
+            if (type instanceof Class<?> || TypeMatcher.isInstanceOfType(value, type, mode, counter)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Resolves the value as {@link #resolve(Object, ValidationMode)} does, recording it in the metrics, and in a JFR
+     * event if the value had to be checked itself or was not accepted.
+     */
+    private int resolveInstrumented(Object value, ValidationMode mode) {
+        int tag = classify(value.getClass());
+        if (tag >= 0) {
+            metrics.recordHit(tag);
+            return tag;
+        }
+        UnionResolveEvent event = new UnionResolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        TypeMatcher.Counter counter = new TypeMatcher.Counter();
+        if (tag == VALUE_DEPENDENT) {
+            tag = resolve(value, mode, counter);
+        }
+        metrics.recordValidation(tag, counter.count, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.schema = metrics.getSchemaName();
+            event.valueClass = value.getClass();
+            event.tag = tag;
+            event.elementsScanned = counter.count;
+            event.commit();
+        }
+        return tag;
+    }
+
+    /**
+     * Returns the index of the declared type that every value of the given class resolves to, or -1 if no declared type
+     * accepts it or the answer depends on the value itself.
+     */
+    int resolveClass(Class<?> cls) {
+        return Math.max(classify(cls), -1);
+    }
+
+    /**
+     * Returns the index of the declared type that every value of the given class resolves to, -1 if no declared type
+     * accepts it, or {@link #VALUE_DEPENDENT} if the answer depends on the value itself.
+     */
+    int classify(Class<?> cls) {
+        int[] indices;
+        if (adaptive) {
+            int hotIndex = hotIndex(cls);
+            if (hotIndex >= 0) {
+                return hotIndex;
+            }
+            indices = candidates.get(cls);
+            maybePromote(cls, indices);
+        } else {
+            indices = candidates.get(cls);
+        }
+        if (indices.length == 0) {
+            return -1;
+        }
+        return types[indices[0]] instanceof Class<?> ? indices[0] : VALUE_DEPENDENT;
+    }
+
+    private int[] computeCandidates(Class<?> cls) {
+        int[] indices = new int[types.length];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            Type type = types[i];
+            if (type instanceof Class<?> declared) {
+                if (declared.isAssignableFrom(cls) || (declared.isPrimitive() && Primitives.wrap(declared) == cls)) {
+                    // a plain class match is definitive, so nothing declared after it can ever be reached
+                    indices[count++] = i;
+                    break;
+                }
+            } else if (TypeMatcher.erasure(type).isAssignableFrom(cls)) {
+                indices[count++] = i;
+            }
+        }
+        return count == 0 ? NO_CANDIDATES : Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Returns the index that the class resolves to if it holds the hot slot, or -1.
+     */
+    private int hotIndex(Class<?> cls) {
+        HotClass h = hot;
+        return h != null && h.refersTo(cls) ? h.index : -1;
+    }
+
+    /**
+     * Moves the hot slot to the given class, if its values always resolve to a plain declared type and it is sampled,
+     * or the slot is empty or its class has been unloaded.
+     */
+    private void maybePromote(Class<?> cls, int[] indices) {
+        HotClass h = hot;
+        if (indices.length > 0 && types[indices[0]] instanceof Class<?> && (h == null || h.refersTo(null)
+                || (ThreadLocalRandom.current().nextInt() & PROMOTION_SAMPLE_MASK) == 0)) {
+            hot = new HotClass(cls, indices[0]);
+        }
+    }
+
+    private static final class HotClass extends WeakReference<Class<?>> {
+        final int index;
+
+        HotClass(Class<?> cls, int index) {
+            super(cls);
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package net.jonathangiles.test.union;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * An immutable, value-based counterpart to {@link Union}. The value and the declared type it was matched to are held
+ * together in final fields, so an instance can be shared between threads without synchronization and a reader can
+ * never observe a value paired with a stale type. Changing the value is done with {@link #with(Object)}, which returns
+ * a new instance.
+ *
+ * <p>Instances should be compared with {@link #equals(Object)} rather than by identity.</p>
+ *
+ * @see Union
+ */
+public final class ImmutableUnion {
+    private final UnionSchema schema;
+    private final Object value;
+    private final int tag;
+
+    private ImmutableUnion(UnionSchema schema, Object value, int tag) {
+        this.schema = schema;
+        this.value = value;
+        this.tag = tag;
+    }
+
+    /**
+     * Creates an immutable union of the given schema holding the given value.
+     *
+     * @param schema The schema of the union.
+     * @param value The value of the union.
+     * @return A new immutable union.
+     * @throws InvalidTypeException If the value is null or not of any of the types declared by the schema.
+     */
+    public static ImmutableUnion of(UnionSchema schema, Object value) {
+        Objects.requireNonNull(schema, "schema");
+        int index = schema.resolve(value);
+        if (index < 0) {
+            throw schema.invalidType(value, -1);
+        }
+        return new ImmutableUnion(schema, value, index);
+    }
+
+    /**
+     * Creates an immutable union of the given schema that holds no value.
+     *
+     * @param schema The schema of the union.
+     * @return A new immutable union with no value.
+     */
+    public static ImmutableUnion empty(UnionSchema schema) {
+        return new ImmutableUnion(Objects.requireNonNull(schema, "schema"), null, -1);
+    }
+
+    /**
+     * Creates an immutable union holding the given value, which has already been matched to the declared type at the
+     * given index.
+     */
+    static ImmutableUnion ofResolved(UnionSchema schema, Object value, int tag) {
+        return new ImmutableUnion(schema, value, tag);
+    }
+
+    /**
+     * Returns a new immutable union of the same schema holding the given value. This union is left unchanged.
+     *
+     * @param value The value of the new union.
+     * @return A new immutable union.
+     * @throws IllegalArgumentException If the value is not of any of the types declared by the schema.
+     */
+    public ImmutableUnion with(Object value) {
+        return of(schema, value);
+    }
+
+    /**
+     * Returns a new mutable {@link Union} of the same schema, holding the value of this union.
+     *
+     * @return A new mutable union.
+     */
+    public Union toUnion() {
+        Union union = Union.ofSchema(schema);
+        if (tag >= 0) {
+            union.setResolved(value, tag);
+        }
+        return union;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getValue() {
+        return (T) value;
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    public List<Type> getTypes() {
+        return schema.getTypes();
+    }
+
+    public Type getType() {
+        return tag < 0 ? null : schema.getType(tag);
+    }
+
+    /**
+     * Returns the index into {@link #getTypes()} of the declared type that the value was matched to, or -1 if this
+     * union holds no value.
+     *
+     * @return The index of the declared type, or -1.
+     */
+    public int getTag() {
+        return tag;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Class<T> cls) {
+        if (cls.isInstance(value)) {
+            return cls.cast(value);
+        }
+        if (TypeMatcher.isPrimitiveTypeMatch(value, cls)) {
+            return (T) value;
+        }
+        throw new IllegalArgumentException("Value is not of type: " + cls.getName());
+    }
+
+    public <T> T getValue(Class<T> cls, Class<?>... genericTypes) {
+        return getValue(Types.parameterized(cls, genericTypes));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ParameterizedTypeImpl type) {
+        if (isVerifiedAs(type) || TypeMatcher.isInstanceOfType(value, type, schema.getValidationMode())) {
+            return (T) value;
+        }
+        throw new IllegalArgumentException("Value is not of type: " + type.getTypeName());
+    }
+
+    /**
+     * This method is used to consume the value of the union if it is of the expected type.
+     *
+     * @param consumer A consumer that will consume the value of the union if it is of the expected type.
+     * @param cls The expected type of the value.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     * @see Union#tryConsume(Consumer, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> boolean tryConsume(Consumer<T> consumer, Class<T> cls) {
+        if (TypeMatcher.isInstanceOfType(value, cls) || TypeMatcher.isPrimitiveTypeMatch(value, cls)) {
+            consumer.accept((T) value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method is used to consume the value of the union if it is of the expected type.
+     *
+     * @param consumer A consumer that will consume the value of the union if it is of the expected type.
+     * @param genericTypes A var-args representation of generic types that are expected by the consumer, for example,
+     *                     List<String> would be represented as <pre>List.class, String.class</pre>.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     * @see Union#tryConsume(Consumer, Class, Class[])
+     */
+    public <T> boolean tryConsume(Consumer<T> consumer, Class<T> cls, Class<?>... genericTypes) {
+        return tryConsume(consumer, Types.parameterized(cls, genericTypes));
+    }
+
+    /**
+     * This method is used to consume the value of the union if it is of the expected type.
+     *
+     * @param consumer A consumer that will consume the value of the union if it is of the expected type.
+     * @param type The expected type of the value.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     * @see Union#tryConsume(Consumer, ParameterizedType)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> boolean tryConsume(Consumer<T> consumer, ParameterizedType type) {
+        if (isVerifiedAs(type) || TypeMatcher.isInstanceOfType(value, type, schema.getValidationMode())) {
+            consumer.accept((T) value);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isVerifiedAs(Type type) {
+        return tag >= 0 && type.equals(schema.getType(tag));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImmutableUnion that)) return false;
+        return schema == that.schema && tag == that.tag && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(schema, tag, value);
+    }
+
+    @Override
+    public String toString() {
+        return formatTo(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given builder, using the names of the declared types cached
+     * by the schema, so the only string built is the rendering of the value itself.
+     *
+     * @param sb The builder to append to.
+     * @return The given builder.
+     */
+    public StringBuilder formatTo(StringBuilder sb) {
+        return formatTo(sb, "ImmutableUnion");
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given {@link Appendable}, such as a {@link java.io.Writer}.
+     *
+     * @param out The appendable to append to.
+     * @return The given appendable.
+     * @param <A> The type of the appendable.
+     * @throws IOException If the appendable throws it.
+     * @see #formatTo(StringBuilder)
+     */
+    public <A extends Appendable> A formatTo(A out) throws IOException {
+        return formatTo(out, "ImmutableUnion");
+    }
+
+    /**
+     * Appends the rendering of this union under the given class name, which {@link ConcurrentUnion} shares.
+     */
+    StringBuilder formatTo(StringBuilder sb, String name) {
+        sb.append(name).append("{types=").append(schema.typesString());
+        if (tag < 0) {
+            return sb.append(", value=null}");
+        }
+        return sb.append(", type=").append(schema.typeName(tag)).append(", value=").append(value).append('}');
+    }
+
+    <A extends Appendable> A formatTo(A out, String name) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            formatTo(sb, name);
+            return out;
+        }
+        out.append(name).append("{types=").append(schema.typesString());
+        if (tag < 0) {
+            out.append(", value=null}");
+        } else {
+            out.append(", type=").append(schema.typeName(tag))
+                .append(", value=").append(String.valueOf(value)).append('}');
+        }
+        return out;
+    }
+}
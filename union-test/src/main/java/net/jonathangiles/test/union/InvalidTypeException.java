@@ -0,0 +1,49 @@
+package net.jonathangiles.test.union;
+
+/**
+ * Thrown when a value is not of any of the types declared by the schema of a union.
+ *
+ * <p>The message of the exception is only built when it is asked for. Schemas with
+ * {@link UnionSchema#withStacklessRejection(boolean) stackless rejection} throw it without filling in a stack trace, so
+ * that rejecting a value costs about as much as accepting one.</p>
+ *
+ * @see Union#trySetValue(Object)
+ */
+public final class InvalidTypeException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> valueClass;
+
+    // the position of the value among the values being set, or -1 if a single value was being set
+    private final int position;
+
+    InvalidTypeException(Class<?> valueClass, int position, boolean stackTrace) {
+        super((String) null);
+        this.valueClass = valueClass;
+        this.position = position;
+        if (stackTrace) {
+            super.fillInStackTrace();
+        }
+    }
+
+    /**
+     * Returns the runtime class of the value that was not accepted, or null if the value was null.
+     *
+     * @return The class of the rejected value, or null.
+     */
+    public Class<?> getValueClass() {
+        return valueClass;
+    }
+
+    @Override
+    public String getMessage() {
+        String name = valueClass == null ? "null" : valueClass.getName();
+        return position < 0 ? "Invalid type: " + name : "Invalid type: " + name + " at index " + position;
+    }
+
+    // the stack trace, if any, is filled in by the constructor
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,91 @@
+package net.jonathangiles.test.union;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * A {@link ParameterizedType} built from a raw class and its type arguments, such as {@code List<String>}.
+ *
+ * <p>The hash code is computed up front and the type name on first use, so instances are cheap to use as map keys and
+ * to print. Prefer {@link Types#parameterized(Class, Type...)} to the constructor, which returns a shared canonical
+ * instance, so that equal types are usually also identical.</p>
+ */
+public class ParameterizedTypeImpl implements ParameterizedType {
+    private final Class<?> raw;
+    private final Type[] args;
+    private final int hash;
+
+    // computed on first use; racing threads compute the same string
+    private String typeName;
+
+    public ParameterizedTypeImpl(Class<?> raw, Type... args) {
+        this.raw = raw;
+        this.args = args.clone();
+        this.hash = 31 * (31 + raw.hashCode()) + Arrays.hashCode(this.args);
+    }
+
+    @Override
+    public Type[] getActualTypeArguments() {
+        return args.clone();
+    }
+
+    /**
+     * Returns the type arguments without copying them, for the callers in this package that only read them.
+     */
+    Type[] arguments() {
+        return args;
+    }
+
+    @Override
+    public Type getRawType() {
+        return raw;
+    }
+
+    @Override
+    public Type getOwnerType() {
+        return null;
+    }
+
+    /**
+     * Returns true if this type has exactly the given type arguments.
+     */
+    boolean hasArguments(Type[] arguments) {
+        return Arrays.equals(args, arguments);
+    }
+
+    @Override
+    public String getTypeName() {
+        String name = typeName;
+        if (name == null) {
+            StringBuilder sb = new StringBuilder(raw.getTypeName()).append('<');
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(args[i].getTypeName());
+            }
+            name = sb.append('>').toString();
+            typeName = name;
+        }
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return getTypeName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ParameterizedTypeImpl that = (ParameterizedTypeImpl) o;
+        return hash == that.hash && raw.equals(that.raw) && Arrays.equals(args, that.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
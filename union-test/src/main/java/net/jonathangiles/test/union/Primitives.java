@@ -0,0 +1,88 @@
+package net.jonathangiles.test.union;
+
+/**
+ * Helpers for storing primitive values in the raw {@code long} slot used by {@link Union}, so that values of members
+ * declared with a primitive type never need to be boxed.
+ */
+final class Primitives {
+    private Primitives() {
+    }
+
+    /**
+     * Returns the wrapper class for the given primitive class, or the class itself if it is not primitive.
+     */
+    static Class<?> wrap(Class<?> cls) {
+        if (!cls.isPrimitive()) {
+            return cls;
+        }
+        if (cls == int.class) return Integer.class;
+        if (cls == long.class) return Long.class;
+        if (cls == double.class) return Double.class;
+        if (cls == float.class) return Float.class;
+        if (cls == boolean.class) return Boolean.class;
+        if (cls == char.class) return Character.class;
+        if (cls == byte.class) return Byte.class;
+        if (cls == short.class) return Short.class;
+        return Void.class;
+    }
+
+    /**
+     * Encodes a boxed primitive value into its raw slot representation.
+     */
+    static long toBits(Object value) {
+        if (value instanceof Integer i) return i;
+        if (value instanceof Long l) return l;
+        if (value instanceof Double d) return Double.doubleToRawLongBits(d);
+        if (value instanceof Float f) return Float.floatToRawIntBits(f);
+        if (value instanceof Boolean b) return b ? 1L : 0L;
+        if (value instanceof Character c) return c;
+        if (value instanceof Byte b) return b;
+        if (value instanceof Short s) return s;
+        throw new IllegalArgumentException("Not a primitive value: " + value.getClass().getName());
+    }
+
+    /**
+     * Boxes the raw slot representation of a value of the given primitive type.
+     */
+    static Object box(Class<?> primitive, long bits) {
+        if (primitive == int.class) return (int) bits;
+        if (primitive == long.class) return bits;
+        if (primitive == double.class) return Double.longBitsToDouble(bits);
+        if (primitive == float.class) return Float.intBitsToFloat((int) bits);
+        if (primitive == boolean.class) return bits != 0;
+        if (primitive == char.class) return (char) bits;
+        if (primitive == byte.class) return (byte) bits;
+        if (primitive == short.class) return (short) bits;
+        throw new IllegalArgumentException("Not a primitive type: " + primitive.getName());
+    }
+
+    /**
+     * Appends the raw slot representation of a value of the given primitive type, without boxing it.
+     */
+    static StringBuilder appendTo(StringBuilder sb, Class<?> primitive, long bits) {
+        if (primitive == int.class) return sb.append((int) bits);
+        if (primitive == long.class) return sb.append(bits);
+        if (primitive == double.class) return sb.append(Double.longBitsToDouble(bits));
+        if (primitive == float.class) return sb.append(Float.intBitsToFloat((int) bits));
+        if (primitive == boolean.class) return sb.append(bits != 0);
+        if (primitive == char.class) return sb.append((char) bits);
+        if (primitive == byte.class) return sb.append((byte) bits);
+        if (primitive == short.class) return sb.append((short) bits);
+        throw new IllegalArgumentException("Not a primitive type: " + primitive.getName());
+    }
+
+    /**
+     * Returns the string form of the raw slot representation of a value of the given primitive type, without boxing it.
+     */
+    static String toString(Class<?> primitive, long bits) {
+        if (primitive == int.class) return String.valueOf((int) bits);
+        if (primitive == long.class) return String.valueOf(bits);
+        if (primitive == double.class) return String.valueOf(Double.longBitsToDouble(bits));
+        if (primitive == float.class) return String.valueOf(Float.intBitsToFloat((int) bits));
+        if (primitive == boolean.class) return String.valueOf(bits != 0);
+        if (primitive == char.class) return String.valueOf((char) bits);
+        if (primitive == byte.class) return String.valueOf((byte) bits);
+        if (primitive == short.class) return String.valueOf((short) bits);
+        throw new IllegalArgumentException("Not a primitive type: " + primitive.getName());
+    }
+}
@@ -0,0 +1,268 @@
+package net.jonathangiles.test.union;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Type checks shared by {@link Union} and its {@link DispatchPlan}, determining whether a value is acceptable for a
+ * declared {@link Type}.
+ *
+ * <p>Generic values are walked with plain loops, short-circuiting on the first element that does not match. The
+ * following are understood:</p>
+ * <ul>
+ *     <li>{@link Collection}s, whose elements must match one of the type arguments,</li>
+ *     <li>{@link Map}s, whose keys and values must match the first and second type arguments respectively,</li>
+ *     <li>{@link Optional}s, whose value, if present, must match the type argument,</li>
+ *     <li>arrays of a generic component type, such as {@code List<String>[]}, whose elements must match it,</li>
+ *     <li>any nesting of the above, and type arguments that are classes, wildcards or type variables.</li>
+ * </ul>
+ * <p>Values of any other parameterized type cannot have their type arguments verified, and so never match.</p>
+ */
+final class TypeMatcher {
+    private TypeMatcher() {
+    }
+
+    static boolean isInstanceOfType(Object value, Type type) {
+        return isInstanceOfType(value, type, ValidationMode.FULL, null);
+    }
+
+    static boolean isInstanceOfType(Object value, Type type, ValidationMode mode) {
+        return isInstanceOfType(value, type, mode, null);
+    }
+
+    /**
+     * Checks the value against the type, adding the number of elements, keys and values of generic values that are
+     * checked against a type argument to the given counter, if there is one.
+     */
+    static boolean isInstanceOfType(Object value, Type type, ValidationMode mode, Counter counter) {
+        if (type instanceof Class<?> cls) {
+            return cls.isInstance(value);
+        } else if (type instanceof ParameterizedType pType) {
+            return isInstanceOfParameterizedType(value, pType, mode, counter);
+        } else if (type instanceof GenericArrayType arrayType) {
+            return isInstanceOfGenericArrayType(value, arrayType, mode, counter);
+        } else if (type instanceof WildcardType wildcardType) {
+            // a lower bound says nothing about the value itself, so only the upper bounds can be checked
+            return value != null && matchesAll(value, wildcardType.getUpperBounds(), mode, counter);
+        } else if (type instanceof TypeVariable<?> typeVariable) {
+            return value != null && matchesAll(value, typeVariable.getBounds(), mode, counter);
+        }
+        return false;
+    }
+
+    static boolean isPrimitiveTypeMatch(Object value, Type type) {
+        if (type instanceof Class<?>) {
+            Class<?> cls = (Class<?>) type;
+            if (cls.isPrimitive()) {
+                if ((cls == int.class && value instanceof Integer) ||
+                    (cls == long.class && value instanceof Long) ||
+                    (cls == double.class && value instanceof Double) ||
+                    (cls == float.class && value instanceof Float) ||
+                    (cls == boolean.class && value instanceof Boolean) ||
+                    (cls == char.class && value instanceof Character) ||
+                    (cls == byte.class && value instanceof Byte) ||
+                    (cls == short.class && value instanceof Short)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the class that every value of the given type is an instance of.
+     */
+    static Class<?> erasure(Type type) {
+        if (type instanceof Class<?> cls) {
+            return cls;
+        } else if (type instanceof ParameterizedType pType) {
+            return erasure(pType.getRawType());
+        } else if (type instanceof GenericArrayType arrayType) {
+            return erasure(arrayType.getGenericComponentType()).arrayType();
+        } else if (type instanceof WildcardType wildcardType) {
+            return erasure(wildcardType.getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?> typeVariable) {
+            return erasure(typeVariable.getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static boolean isInstanceOfParameterizedType(Object value, ParameterizedType pType,
+                                                         ValidationMode mode, Counter counter) {
+        if (!(pType.getRawType() instanceof Class<?> raw) || !raw.isInstance(value)) {
+            return false;
+        }
+        if (mode.kind() == ValidationMode.Kind.TRUSTED) {
+            return true;
+        }
+        Type[] args = pType instanceof ParameterizedTypeImpl impl
+            ? impl.arguments()
+            : pType.getActualTypeArguments();
+        if (value instanceof Collection<?> c) {
+            return matchesElements(c, args, false, mode, counter);
+        } else if (value instanceof Map<?, ?> map) {
+            return args.length == 2 && matchesElements(map.entrySet(), args, true, mode, counter);
+        } else if (value instanceof Optional<?> optional) {
+            return args.length == 1
+                && (optional.isEmpty() || matchesArgument(optional.get(), args[0], mode, counter));
+        }
+        return false;
+    }
+
+    private static boolean isInstanceOfGenericArrayType(Object value, GenericArrayType arrayType,
+                                                        ValidationMode mode, Counter counter) {
+        if (!(value instanceof Object[] array) || !erasure(arrayType).isInstance(value)) {
+            return false;
+        }
+        if (mode.kind() == ValidationMode.Kind.TRUSTED) {
+            return true;
+        }
+        Type component = arrayType.getGenericComponentType();
+        int length = array.length;
+        switch (mode.kind()) {
+            case HEAD:
+                for (int i = 0; i < length; i++) {
+                    if (array[i] != null) {
+                        return matchesArgument(array[i], component, mode, counter);
+                    }
+                }
+                return true;
+            case SAMPLED:
+                if (length > mode.sampleSize()) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < mode.sampleSize(); i++) {
+                        if (!matchesArgument(array[random.nextInt(length)], component, mode, counter)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                // small enough to check in full
+                return matchesAllComponents(array, component, mode, counter);
+            default:
+                return matchesAllComponents(array, component, mode, counter);
+        }
+    }
+
+    private static boolean matchesAllComponents(Object[] array, Type component, ValidationMode mode,
+                                                Counter counter) {
+        for (Object element : array) {
+            if (!matchesArgument(element, component, mode, counter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the elements of a collection (or the entries of a map, if {@code entries} is true) against the given type
+     * arguments, visiting as many elements as the validation mode calls for.
+     */
+    private static boolean matchesElements(Collection<?> elements, Type[] args, boolean entries,
+                                           ValidationMode mode, Counter counter) {
+        int size = elements.size();
+        List<?> list = elements instanceof List<?> l && elements instanceof RandomAccess ? l : null;
+        switch (mode.kind()) {
+            case HEAD:
+                for (Object element : elements) {
+                    if (element != null) {
+                        return matchesElement(element, args, entries, mode, counter);
+                    }
+                }
+                return true;
+            case SAMPLED:
+                int sampleSize = mode.sampleSize();
+                if (size > sampleSize) {
+                    if (list != null) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < sampleSize; i++) {
+                            if (!matchesElement(list.get(random.nextInt(size)), args, entries, mode, counter)) {
+                                return false;
+                            }
+                        }
+                    } else {
+                        Iterator<?> iterator = elements.iterator();
+                        for (int i = 0; i < sampleSize; i++) {
+                            if (!matchesElement(iterator.next(), args, entries, mode, counter)) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+                // small enough to check in full
+                return matchesAllElements(elements, list, args, entries, mode, counter);
+            default:
+                return matchesAllElements(elements, list, args, entries, mode, counter);
+        }
+    }
+
+    /**
+     * Checks every element of a collection, indexing into {@code list} rather than iterating if it is not null.
+     */
+    private static boolean matchesAllElements(Collection<?> elements, List<?> list, Type[] args, boolean entries,
+                                              ValidationMode mode, Counter counter) {
+        if (list != null) {
+            for (int i = 0, size = list.size(); i < size; i++) {
+                if (!matchesElement(list.get(i), args, entries, mode, counter)) {
+                    return false;
+                }
+            }
+        } else {
+            for (Object element : elements) {
+                if (!matchesElement(element, args, entries, mode, counter)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesElement(Object element, Type[] args, boolean entry,
+                                          ValidationMode mode, Counter counter) {
+        if (entry) {
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) element;
+            return matchesArgument(e.getKey(), args[0], mode, counter)
+                && matchesArgument(e.getValue(), args[1], mode, counter);
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (matchesArgument(element, args[i], mode, counter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesArgument(Object value, Type arg, ValidationMode mode, Counter counter) {
+        if (UnionMetrics.ENABLED && counter != null) {
+            counter.count++;
+        }
+        return isInstanceOfType(value, arg, mode, counter) || isPrimitiveTypeMatch(value, arg);
+    }
+
+    private static boolean matchesAll(Object value, Type[] bounds, ValidationMode mode, Counter counter) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (!isInstanceOfType(value, bounds[i], mode, counter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the elements of generic values that are checked, for {@link UnionMetrics}.
+     */
+    static final class Counter {
+        long count;
+    }
+}
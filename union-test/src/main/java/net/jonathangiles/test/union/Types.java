@@ -0,0 +1,139 @@
+package net.jonathangiles.test.union;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Factories for the {@link Type}s used to declare and read generic union members.
+ *
+ * <p>Parameterized types are interned: {@link #parameterized(Class, Type...)} returns the same instance for the same
+ * raw type and arguments for as long as that instance is in use, so comparing declared types is usually an identity
+ * check, and reading a generic value with {@link Union#getValue(Class, Class...)} does not create a new type object
+ * each time. The canonical instances are only weakly held, so interning never keeps a type (or the classes it refers
+ * to) alive. {@link UnionSchema} interns the {@link ParameterizedTypeImpl}s it is declared with, so the instances held
+ * by a schema are the canonical ones.</p>
+ */
+public final class Types {
+    // the canonical parameterizations of each raw type, held by the raw type itself so they are unloaded with it
+    private static final ClassValue<Interner> INTERNERS = new ClassValue<>() {
+        @Override
+        protected Interner computeValue(Class<?> type) {
+            return new Interner();
+        }
+    };
+
+    private Types() {
+    }
+
+    /**
+     * Returns the canonical parameterized type with the given raw type and type arguments, such as
+     * {@code Types.parameterized(List.class, String.class)} for {@code List<String>}.
+     *
+     * @param raw The raw type.
+     * @param args The type arguments.
+     * @return The canonical parameterized type.
+     */
+    public static ParameterizedTypeImpl parameterized(Class<?> raw, Type... args) {
+        Objects.requireNonNull(raw, "raw");
+        for (Type arg : args) {
+            Objects.requireNonNull(arg, "Type arguments must not be null");
+        }
+        return INTERNERS.get(raw).intern(raw, args, null);
+    }
+
+    /**
+     * Returns the canonical instance equal to the given parameterized type, which becomes the canonical instance if
+     * there is none yet.
+     */
+    static ParameterizedTypeImpl canonicalize(ParameterizedTypeImpl type) {
+        Class<?> raw = (Class<?>) type.getRawType();
+        return INTERNERS.get(raw).intern(raw, type.arguments(), type);
+    }
+
+    /**
+     * The canonical parameterizations of a single raw type, bucketed by the hash of their type arguments. Finding a
+     * type reads a single bucket without locking, and a bucket rarely holds more than one type, so a miss (such as
+     * reading a value with type arguments that no schema declares) only locks and copies that one bucket.
+     */
+    private static final class Interner {
+        private final ConcurrentHashMap<Integer, Entry[]> buckets = new ConcurrentHashMap<>();
+
+        // the entries whose types have been collected, which are removed from their buckets on the next miss
+        private final ReferenceQueue<ParameterizedTypeImpl> cleared = new ReferenceQueue<>();
+
+        ParameterizedTypeImpl intern(Class<?> raw, Type[] args, ParameterizedTypeImpl candidate) {
+            int hash = Arrays.hashCode(args);
+            ParameterizedTypeImpl found = find(buckets.get(hash), args);
+            if (found != null) {
+                return found;
+            }
+            expunge();
+            // the bucket may only hold the type for as long as something else does, so it is returned from here
+            ParameterizedTypeImpl[] result = new ParameterizedTypeImpl[1];
+            buckets.compute(hash, (key, bucket) -> {
+                result[0] = find(bucket, args);
+                if (result[0] != null) {
+                    return bucket;
+                }
+                result[0] = candidate != null ? candidate : new ParameterizedTypeImpl(raw, args);
+                return append(bucket, new Entry(result[0], key, cleared));
+            });
+            return result[0];
+        }
+
+        private void expunge() {
+            for (Reference<? extends ParameterizedTypeImpl> ref; (ref = cleared.poll()) != null; ) {
+                Entry entry = (Entry) ref;
+                buckets.computeIfPresent(entry.hash, (key, bucket) -> append(bucket, null));
+            }
+        }
+
+        private static ParameterizedTypeImpl find(Entry[] bucket, Type[] args) {
+            if (bucket == null) {
+                return null;
+            }
+            for (Entry entry : bucket) {
+                ParameterizedTypeImpl type = entry.get();
+                if (type != null && type.hasArguments(args)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        // copies the entries that are still alive, followed by the new entry if there is one, or returns null if that
+        // leaves the bucket empty, which removes it
+        private static Entry[] append(Entry[] bucket, Entry entry) {
+            int length = (bucket == null ? 0 : bucket.length) + (entry == null ? 0 : 1);
+            Entry[] result = new Entry[length];
+            int size = 0;
+            if (bucket != null) {
+                for (Entry alive : bucket) {
+                    if (alive.get() != null) {
+                        result[size++] = alive;
+                    }
+                }
+            }
+            if (entry != null) {
+                result[size++] = entry;
+            }
+            return size == 0 ? null : size == result.length ? result : Arrays.copyOf(result, size);
+        }
+    }
+
+    // a concrete reference type, so the entries can be held in an array without an unchecked generic array creation
+    private static final class Entry extends WeakReference<ParameterizedTypeImpl> {
+        // the hash of the type arguments, which is the key of the bucket holding the entry
+        final int hash;
+
+        Entry(ParameterizedTypeImpl type, int hash, ReferenceQueue<ParameterizedTypeImpl> queue) {
+            super(type, queue);
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package net.jonathangiles.test.union;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.function.Consumer;
+
+public class Union {
+    private final UnionSchema schema;
+    private Object value;
+
+    // the raw payload of a member declared with a primitive type, which is stored here rather than boxed into value
+    private long bits;
+
+    // the index of the declared type of the current value, or -1, which fits in a byte as schemas declare at most
+    // UnionSchema.MAX_TYPES types
+    private byte tag = -1;
+
+    private Union(UnionSchema schema) {
+        this.schema = schema;
+    }
+
+    public static Union ofTypes(Type... types) {
+        return new Union(UnionSchema.of(types));
+    }
+
+    public static Union ofSchema(UnionSchema schema) {
+        return new Union(Objects.requireNonNull(schema, "schema"));
+    }
+
+    /**
+     * Creates a reusable binder for consuming values of the given type, which avoids the type checks that
+     * {@link #tryConsume(Consumer, Class)} repeats on every call.
+     *
+     * @param cls The expected type of the values.
+     * @return A new binder.
+     * @param <T> The expected type of the values.
+     */
+    public static <T> UnionBinder<T> binder(Class<T> cls) {
+        return UnionBinder.of(cls);
+    }
+
+    /**
+     * Creates a reusable binder for consuming values of the given generic type, which avoids the type checks that
+     * {@link #tryConsume(Consumer, Class, Class...)} repeats on every call.
+     *
+     * @param cls The expected raw type of the values.
+     * @param genericTypes The type arguments of the expected type, for example, List<String> would be represented as
+     *                     <pre>List.class, String.class</pre>.
+     * @return A new binder.
+     * @param <T> The expected type of the values.
+     */
+    public static <T> UnionBinder<T> binder(Class<T> cls, Class<?>... genericTypes) {
+        return UnionBinder.of(Types.parameterized(cls, genericTypes));
+    }
+
+    /**
+     * Creates a reusable binder for consuming values of the given parameterized type.
+     *
+     * @param type The expected type of the values.
+     * @return A new binder.
+     * @param <T> The expected type of the values.
+     */
+    public static <T> UnionBinder<T> binder(ParameterizedType type) {
+        return UnionBinder.of(type);
+    }
+
+    /**
+     * Sets the value of the Union, matching it to the first declared type that accepts it.
+     *
+     * @param value The value to set.
+     * @throws InvalidTypeException If the value is null or not of any of the declared types, in which case the Union
+     * is left unchanged.
+     */
+    public void setValue(Object value) {
+        if (trySetValue(value) < 0) {
+            throw schema.invalidType(value, -1);
+        }
+    }
+
+    /**
+     * Sets the value of the Union as {@link #setValue(Object)} does, but returns -1 rather than throwing if the value
+     * is null or not of any of the declared types, which makes rejecting a value about as cheap as accepting one.
+     *
+     * @param value The value to set.
+     * @return The index of the declared type that the value was matched to, which is the new tag of the Union, or -1
+     * if the value was not accepted, in which case the Union is left unchanged.
+     */
+    public int trySetValue(Object value) {
+        int index = schema.resolve(value);
+        if (index >= 0) {
+            setResolved(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * Sets a value that has already been matched to the declared type at the given index.
+     */
+    void setResolved(Object value, int index) {
+        if (schema.primitiveType(index) != null) {
+            this.bits = Primitives.toBits(value);
+            this.value = null;
+        } else {
+            this.value = value;
+        }
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Sets the raw bits of a value of the member declared with a primitive type at the given index.
+     */
+    void setResolvedBits(int index, long bits) {
+        this.bits = bits;
+        this.value = null;
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Removes the value of the Union, as if no value had been set.
+     */
+    void clear() {
+        this.value = null;
+        this.tag = -1;
+    }
+
+    /**
+     * Sets the value of the Union to the given int without boxing it, if the Union declares an {@code int} member.
+     * Otherwise the value is boxed and set as if by {@link #setValue(Object)}.
+     *
+     * @param value The value to set.
+     * @throws IllegalArgumentException If the Union does not accept an int value.
+     */
+    public void setInt(int value) {
+        int index = schema.intSlot();
+        if (index < 0) {
+            setValue(value);
+            return;
+        }
+        this.bits = value;
+        this.value = null;
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Sets the value of the Union to the given long without boxing it, if the Union declares a {@code long} member.
+     * Otherwise the value is boxed and set as if by {@link #setValue(Object)}.
+     *
+     * @param value The value to set.
+     * @throws IllegalArgumentException If the Union does not accept a long value.
+     */
+    public void setLong(long value) {
+        int index = schema.longSlot();
+        if (index < 0) {
+            setValue(value);
+            return;
+        }
+        this.bits = value;
+        this.value = null;
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Sets the value of the Union to the given float without boxing it, if the Union declares a {@code float} member.
+     * Otherwise the value is boxed and set as if by {@link #setValue(Object)}.
+     *
+     * @param value The value to set.
+     * @throws IllegalArgumentException If the Union does not accept a float value.
+     */
+    public void setFloat(float value) {
+        int index = schema.floatSlot();
+        if (index < 0) {
+            setValue(value);
+            return;
+        }
+        this.bits = Float.floatToRawIntBits(value);
+        this.value = null;
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Sets the value of the Union to the given double without boxing it, if the Union declares a {@code double}
+     * member. Otherwise the value is boxed and set as if by {@link #setValue(Object)}.
+     *
+     * @param value The value to set.
+     * @throws IllegalArgumentException If the Union does not accept a double value.
+     */
+    public void setDouble(double value) {
+        int index = schema.doubleSlot();
+        if (index < 0) {
+            setValue(value);
+            return;
+        }
+        this.bits = Double.doubleToRawLongBits(value);
+        this.value = null;
+        this.tag = (byte) index;
+    }
+
+    /**
+     * Sets the value of each of the given unions to the value at the same position, as if by calling
+     * {@link #setValue(Object)} on each of them in turn.
+     *
+     * <p>The declared type that a value is matched to is only looked up when its runtime class (or the schema of its
+     * union) differs from the one before it, so a run of values of the same class costs a single lookup. If a value is
+     * not accepted, the unions before it have already been set.</p>
+     *
+     * @param targets The unions to set.
+     * @param values The values to set, which must be the same length as {@code targets}.
+     * @throws IllegalArgumentException If the arrays differ in length.
+     * @throws InvalidTypeException If a value is null or not accepted by its union.
+     */
+    public static void setAll(Union[] targets, Object[] values) {
+        if (targets.length != values.length) {
+            throw new IllegalArgumentException("Cannot set " + values.length + " values into " + targets.length
+                + " unions");
+        }
+        UnionSchema runSchema = null;
+        Class<?> runClass = null;
+        int runTag = -1;
+        for (int i = 0; i < targets.length; i++) {
+            Union target = targets[i];
+            Object value = values[i];
+            if (value == null) {
+                throw target.schema.invalidType(null, i);
+            }
+            Class<?> cls = value.getClass();
+            if (cls != runClass || target.schema != runSchema) {
+                runSchema = target.schema;
+                runClass = cls;
+                runTag = runSchema.classify(cls);
+            }
+            int index;
+            if (runTag == DispatchPlan.VALUE_DEPENDENT) {
+                index = runSchema.resolve(value);
+            } else {
+                index = runTag;
+                if (UnionMetrics.ENABLED && runSchema.getMetrics() != null) {
+                    runSchema.getMetrics().recordHit(index);
+                }
+            }
+            if (index < 0) {
+                throw runSchema.invalidType(value, i);
+            }
+            target.setResolved(value, index);
+        }
+    }
+
+    /**
+     * Copies the values of the given unions whose tag is {@code tagFilter} into {@code dst} as ints, in order and
+     * without boxing when the member is declared as {@code int}. Unions with any other tag are skipped.
+     *
+     * @param src The unions to read.
+     * @param dst The array to copy the values into, from index 0.
+     * @param tagFilter The tag of the member to copy the values of.
+     * @return The number of values copied.
+     * @throws IllegalArgumentException If a union with the given tag does not hold an int.
+     * @throws IndexOutOfBoundsException If {@code dst} is too short for the values copied.
+     */
+    public static int extractInts(Union[] src, int[] dst, int tagFilter) {
+        int count = 0;
+        for (Union union : src) {
+            if (union.tag == tagFilter) {
+                dst[count++] = union.getInt();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the values of the given unions whose tag is {@code tagFilter} into {@code dst} as longs, in order and
+     * without boxing when the member is declared as {@code long}. Unions with any other tag are skipped.
+     *
+     * @param src The unions to read.
+     * @param dst The array to copy the values into, from index 0.
+     * @param tagFilter The tag of the member to copy the values of.
+     * @return The number of values copied.
+     * @throws IllegalArgumentException If a union with the given tag does not hold a long.
+     * @throws IndexOutOfBoundsException If {@code dst} is too short for the values copied.
+     */
+    public static int extractLongs(Union[] src, long[] dst, int tagFilter) {
+        int count = 0;
+        for (Union union : src) {
+            if (union.tag == tagFilter) {
+                dst[count++] = union.getLong();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the values of the given unions whose tag is {@code tagFilter} into {@code dst} as doubles, in order and
+     * without boxing when the member is declared as {@code double}. Unions with any other tag are skipped.
+     *
+     * @param src The unions to read.
+     * @param dst The array to copy the values into, from index 0.
+     * @param tagFilter The tag of the member to copy the values of.
+     * @return The number of values copied.
+     * @throws IllegalArgumentException If a union with the given tag does not hold a double.
+     * @throws IndexOutOfBoundsException If {@code dst} is too short for the values copied.
+     */
+    public static int extractDoubles(Union[] src, double[] dst, int tagFilter) {
+        int count = 0;
+        for (Union union : src) {
+            if (union.tag == tagFilter) {
+                dst[count++] = union.getDouble();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the Union. Values of members declared with a primitive type are boxed on each call.
+     *
+     * @return The value of the Union, or null if no value has been set.
+     * @param <T> The type the value is cast to.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue() {
+        return (T) currentValue();
+    }
+
+    /**
+     * Returns the value of the Union as an int, without boxing if the current member is declared as {@code int}.
+     *
+     * @return The current value.
+     * @throws IllegalArgumentException If the current value is not an int.
+     */
+    public int getInt() {
+        if (tag >= 0 && schema.primitiveType(tag) == int.class) {
+            return (int) bits;
+        }
+        if (value instanceof Integer i) {
+            return i;
+        }
+        throw new IllegalArgumentException("Value is not of type: int");
+    }
+
+    /**
+     * Returns the value of the Union as a long, without boxing if the current member is declared as {@code long}.
+     *
+     * @return The current value.
+     * @throws IllegalArgumentException If the current value is not a long.
+     */
+    public long getLong() {
+        if (tag >= 0 && schema.primitiveType(tag) == long.class) {
+            return bits;
+        }
+        if (value instanceof Long l) {
+            return l;
+        }
+        throw new IllegalArgumentException("Value is not of type: long");
+    }
+
+    /**
+     * Returns the value of the Union as a float, without boxing if the current member is declared as {@code float}.
+     *
+     * @return The current value.
+     * @throws IllegalArgumentException If the current value is not a float.
+     */
+    public float getFloat() {
+        if (tag >= 0 && schema.primitiveType(tag) == float.class) {
+            return Float.intBitsToFloat((int) bits);
+        }
+        if (value instanceof Float f) {
+            return f;
+        }
+        throw new IllegalArgumentException("Value is not of type: float");
+    }
+
+    /**
+     * Returns the value of the Union as a double, without boxing if the current member is declared as {@code double}.
+     *
+     * @return The current value.
+     * @throws IllegalArgumentException If the current value is not a double.
+     */
+    public double getDouble() {
+        if (tag >= 0 && schema.primitiveType(tag) == double.class) {
+            return Double.longBitsToDouble(bits);
+        }
+        if (value instanceof Double d) {
+            return d;
+        }
+        throw new IllegalArgumentException("Value is not of type: double");
+    }
+
+    /**
+     * Returns an immutable snapshot of this Union, holding its current value and type.
+     *
+     * @return A new immutable union.
+     */
+    public ImmutableUnion toImmutable() {
+        return tag < 0 ? ImmutableUnion.empty(schema) : ImmutableUnion.ofResolved(schema, currentValue(), tag);
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    public List<Type> getTypes() {
+        return schema.getTypes();
+    }
+
+    public Type getType() {
+        return tag < 0 ? null : schema.getType(tag);
+    }
+
+    /**
+     * Returns the index into {@link #getTypes()} of the declared type that the current value was matched to, or -1 if
+     * no value has been set.
+     *
+     * @return The index of the current declared type, or -1.
+     */
+    public int getTag() {
+        return tag;
+    }
+
+    public <T> T getValue(Class<T> cls) {
+        Object value = currentValue();
+        if (cls.isInstance(value)) {
+            return cls.cast(value);
+        }
+        if (TypeMatcher.isPrimitiveTypeMatch(value, cls)) {
+            return (T) value;
+        }
+        throw new IllegalArgumentException("Value is not of type: " + cls.getName());
+    }
+
+    public <T> T getValue(Class<T> cls, Class<?>... genericTypes) {
+        return getValue(Types.parameterized(cls, genericTypes));
+    }
+
+    /**
+     * Returns the value of the Union as the given parameterized type. If this is the declared type that the value was
+     * verified against when it was set, the value is returned without inspecting it again.
+     *
+     * @param type The expected type of the value.
+     * @return The value of the Union.
+     * @param <T> The expected type of the value.
+     * @throws IllegalArgumentException If the value is not of the given type.
+     * @see #revalidate()
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ParameterizedTypeImpl type) {
+        Object value = currentValue();
+        if (isVerifiedAs(type) || TypeMatcher.isInstanceOfType(value, type, schema.getValidationMode())) {
+            return (T) value;
+        }
+        throw new IllegalArgumentException("Value is not of type: " + type.getTypeName());
+    }
+
+    /**
+     * This method is used to consume the value of the Union if it is of the expected type.
+     *
+     * @param consumer A consumer that will consume the value of the Union if it is of the expected type.
+     * @param cls The expected type of the value.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> boolean tryConsume(Consumer<T> consumer, Class<T> cls) {
+        Object value = currentValue();
+        if (TypeMatcher.isInstanceOfType(value, cls)) {
+            consumer.accept(cls.cast(value));
+            return true;
+        }
+        if (TypeMatcher.isPrimitiveTypeMatch(value, cls)) {
+            consumer.accept((T) value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method is used to consume the value of the Union if it is of the expected type.
+     *
+     * @param consumer A consumer that will consume the value of the Union if it is of the expected type.
+     * @param genericTypes A var-args representation of generic types that are expected by the consumer, for example,
+     *                     List<String> would be represented as <pre>List.class, String.class</pre>.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     */
+    public <T> boolean tryConsume(Consumer<T> consumer, Class<T> cls, Class<?>... genericTypes) {
+        return tryConsume(consumer, Types.parameterized(cls, genericTypes));
+    }
+
+    /**
+     * This method is used to consume the value of the Union if it is of the expected type. If this is the declared type
+     * that the value was verified against when it was set, the value is not inspected again.
+     *
+     * @param consumer A consumer that will consume the value of the Union if it is of the expected type.
+     * @param type The expected type of the value.
+     * @return Returns true if the value was consumable by the consumer, and false if it was not.
+     * @param <T> The value type expected by the consumer.
+     * @see #revalidate()
+     */
+    @SuppressWarnings("unchecked")
+    public <T> boolean tryConsume(Consumer<T> consumer, ParameterizedType type) {
+        Object value = currentValue();
+        if (isVerifiedAs(type) || TypeMatcher.isInstanceOfType(value, type, schema.getValidationMode())) {
+            consumer.accept((T) value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Verifies the current value against the declared types again, as {@link #setValue(Object)} would. Generic values
+     * are only inspected when they are set, so this should be called if a value such as a list may have been modified
+     * since. Every element is checked, whatever the {@link ValidationMode} of the schema. If the value now matches a
+     * different declared type, the current type is updated to it.
+     *
+     * @return Returns true if the value still matches a declared type, and false if it no longer matches any, in which
+     * case the Union is left unchanged.
+     */
+    public boolean revalidate() {
+        if (tag < 0 || schema.primitiveType(tag) != null) {
+            return true;
+        }
+        int index = schema.resolve(value, ValidationMode.FULL);
+        if (index < 0) {
+            return false;
+        }
+        this.tag = (byte) index;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return formatTo(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given builder. The names of the declared types are cached by
+     * the schema, and values of members declared with a primitive type are appended without boxing them, so the only
+     * string built is the rendering of a reference value itself.
+     *
+     * @param sb The builder to append to.
+     * @return The given builder.
+     */
+    public StringBuilder formatTo(StringBuilder sb) {
+        sb.append("Union{types=").append(schema.typesString());
+        if (tag < 0) {
+            return sb.append(", value=null}");
+        }
+        sb.append(", type=").append(schema.typeName(tag)).append(", value=");
+        Class<?> primitive = schema.primitiveType(tag);
+        if (primitive != null) {
+            Primitives.appendTo(sb, primitive, bits);
+        } else {
+            sb.append(value);
+        }
+        return sb.append('}');
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to the given {@link Appendable}, such as a {@link java.io.Writer}.
+     *
+     * @param out The appendable to append to.
+     * @return The given appendable.
+     * @param <A> The type of the appendable.
+     * @throws IOException If the appendable throws it.
+     * @see #formatTo(StringBuilder)
+     */
+    public <A extends Appendable> A formatTo(A out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            formatTo(sb);
+            return out;
+        }
+        out.append("Union{types=").append(schema.typesString());
+        if (tag < 0) {
+            out.append(", value=null}");
+        } else {
+            Class<?> primitive = schema.primitiveType(tag);
+            out.append(", type=").append(schema.typeName(tag)).append(", value=")
+                .append(primitive != null ? Primitives.toString(primitive, bits) : String.valueOf(value)).append('}');
+        }
+        return out;
+    }
+
+    /**
+     * Applies the handler registered with the given matcher for the current type of this Union to its value.
+     *
+     * @param matcher A matcher built for the schema of this Union.
+     * @return The result of the handler.
+     * @param <R> The type of result produced by the matcher.
+     * @throws IllegalArgumentException If the matcher was built for a different schema.
+     * @throws IllegalStateException If this Union has no value.
+     */
+    public <R> R match(UnionMatcher<R> matcher) {
+        return matcher.apply(this);
+    }
+
+    /**
+     * Returns true if the current value is held in the raw slot rather than as an object.
+     */
+    boolean isPrimitive() {
+        return tag >= 0 && schema.primitiveType(tag) != null;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    Object rawValue() {
+        return value;
+    }
+
+    private boolean isVerifiedAs(Type type) {
+        return tag >= 0 && type.equals(schema.getType(tag));
+    }
+
+    private Object currentValue() {
+        if (value == null && tag >= 0) {
+            Class<?> primitive = schema.primitiveType(tag);
+            if (primitive != null) {
+                return Primitives.box(primitive, bits);
+            }
+        }
+        return value;
+    }
+}
\ No newline at end of file
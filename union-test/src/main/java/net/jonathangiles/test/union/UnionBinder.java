@@ -0,0 +1,175 @@
+package net.jonathangiles.test.union;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A precompiled type test for consuming the values of unions as a single expected type, which is the reusable
+ * equivalent of {@link Union#tryConsume(Consumer, Class)} and its overloads.
+ *
+ * <p>Rather than inspecting the value on every call, a binder decides once per {@link UnionSchema} which declared
+ * types always hold values of the expected type, and which never can. Consuming a union then only looks up its tag in
+ * that table, and the value itself is only inspected for declared types where the answer depends on it (for example,
+ * a value declared as {@code Object} consumed as a {@code String}). The table for the most recently seen schema is
+ * cached, so a binder used with unions of a single schema never recomputes it.</p>
+ *
+ * <pre>
+ * UnionBinder.Binding&lt;String&gt; printStrings = Union.binder(String.class).bind(System.out::println);
+ * for (Union union : unions) {
+ *     printStrings.tryConsume(union);
+ * }
+ * </pre>
+ *
+ * <p>Binders and bindings are immutable (other than the cached table, which is safe to race on), so they may be
+ * shared between threads and stored in static fields.</p>
+ *
+ * @param <T> The expected type of the values.
+ * @see Union#binder(Class)
+ */
+public final class UnionBinder<T> {
+    private static final byte REJECT = 0;
+    private static final byte ACCEPT = 1;
+    private static final byte CHECK = 2;
+
+    private final Type type;
+
+    // the verdict for each declared type of the most recently seen schema
+    private Verdicts verdicts;
+
+    private UnionBinder(Type type) {
+        this.type = type;
+    }
+
+    static <T> UnionBinder<T> of(Class<T> cls) {
+        return new UnionBinder<>(Objects.requireNonNull(cls, "cls"));
+    }
+
+    static <T> UnionBinder<T> of(ParameterizedType type) {
+        return new UnionBinder<>(Objects.requireNonNull(type, "type"));
+    }
+
+    /**
+     * Binds the given consumer to this binder's type.
+     *
+     * @param consumer The consumer of values of the expected type.
+     * @return A binding that may be reused for any number of unions.
+     */
+    public Binding<T> bind(Consumer<? super T> consumer) {
+        return new Binding<>(this, Objects.requireNonNull(consumer, "consumer"));
+    }
+
+    /**
+     * Returns the type that values are expected to be of.
+     *
+     * @return The expected type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns whether values with the given tag in a union of the given schema are always, never, or only possibly of
+     * the expected type, in which case the value must be checked.
+     */
+    private byte verdict(UnionSchema schema, int tag) {
+        return tag < 0 ? REJECT : verdictsFor(schema).verdicts[tag];
+    }
+
+    private Verdicts verdictsFor(UnionSchema schema) {
+        Verdicts current = verdicts;
+        if (current == null || current.schema != schema) {
+            current = new Verdicts(schema, computeVerdicts(schema));
+            verdicts = current;
+        }
+        return current;
+    }
+
+    private byte[] computeVerdicts(UnionSchema schema) {
+        byte[] result = new byte[schema.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = verdict(schema.getType(i));
+        }
+        return result;
+    }
+
+    private byte verdict(Type declared) {
+        if (declared.equals(type)) {
+            return ACCEPT;
+        }
+        if (!(type instanceof Class<?> cls)) {
+            // a value may be a member of a parameterized type without being declared as it, e.g. a List<String>
+            // member holding an ArrayList<String>, so only the exact type can be decided up front
+            return CHECK;
+        }
+
+        Class<?> erasure = TypeMatcher.erasure(declared);
+        if (erasure.isPrimitive()) {
+            // the value is always exactly the wrapper of the declared primitive type
+            return cls.isAssignableFrom(Primitives.wrap(erasure)) ? ACCEPT : REJECT;
+        }
+        if (cls.isAssignableFrom(erasure) || (cls.isPrimitive() && Primitives.wrap(cls) == erasure)) {
+            return ACCEPT;
+        }
+        return CHECK;
+    }
+
+    private boolean check(Object value, ValidationMode mode) {
+        if (type instanceof Class<?>) {
+            return TypeMatcher.isInstanceOfType(value, type) || TypeMatcher.isPrimitiveTypeMatch(value, type);
+        }
+        return TypeMatcher.isInstanceOfType(value, type, mode);
+    }
+
+    private record Verdicts(UnionSchema schema, byte[] verdicts) {
+    }
+
+    /**
+     * A consumer bound to the type of a {@link UnionBinder}, which consumes the values of unions that are of that
+     * type.
+     *
+     * @param <T> The expected type of the values.
+     */
+    public static final class Binding<T> {
+        private final UnionBinder<T> binder;
+        private final Consumer<? super T> consumer;
+
+        private Binding(UnionBinder<T> binder, Consumer<? super T> consumer) {
+            this.binder = binder;
+            this.consumer = consumer;
+        }
+
+        /**
+         * Consumes the value of the given union if it is of the expected type.
+         *
+         * @param union The union whose value is to be consumed.
+         * @return Returns true if the value was consumed, and false if it was not of the expected type.
+         */
+        public boolean tryConsume(Union union) {
+            byte verdict = binder.verdict(union.getSchema(), union.getTag());
+            // the value is only read (and so, for a primitive member, boxed) once it is known to be needed
+            return verdict != REJECT && consume(verdict, union.getValue(), union.getSchema());
+        }
+
+        /**
+         * Consumes the value of the given immutable union if it is of the expected type.
+         *
+         * @param union The union whose value is to be consumed.
+         * @return Returns true if the value was consumed, and false if it was not of the expected type.
+         */
+        public boolean tryConsume(ImmutableUnion union) {
+            byte verdict = binder.verdict(union.getSchema(), union.getTag());
+            return verdict != REJECT && consume(verdict, union.getValue(), union.getSchema());
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean consume(byte verdict, Object value, UnionSchema schema) {
+            if (verdict == CHECK && !binder.check(value, schema.getValidationMode())) {
+                return false;
+            }
+            consumer.accept((T) value);
+            return true;
+        }
+    }
+}
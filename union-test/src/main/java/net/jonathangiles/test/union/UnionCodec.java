@@ -0,0 +1,579 @@
+package net.jonathangiles.test.union;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A compact binary encoding of the values of unions of a single {@link UnionSchema}, written to and read from a
+ * {@link ByteBuffer} or a {@link DataOutput} / {@link DataInput}.
+ *
+ * <p>An encoded union starts with its tag plus one as an unsigned varint (so a union with no value is the single byte
+ * {@code 0}), followed by the value encoded according to the declared type at that tag:</p>
+ *
+ * <ul>
+ *     <li>{@code int}, {@code long}, {@code short} and {@code byte} (and their wrappers) as zigzag varints, and
+ *     {@code char} as an unsigned varint;</li>
+ *     <li>{@code float} and {@code double} as their raw IEEE 754 bits, in big-endian order;</li>
+ *     <li>{@code boolean} as a single byte;</li>
+ *     <li>{@code String} as its length in bytes, as an unsigned varint, followed by its UTF-8 bytes;</li>
+ *     <li>{@code List<T>}, where {@code T} is any of the above (including another {@code List}), as its size, as an
+ *     unsigned varint, followed by each element.</li>
+ * </ul>
+ *
+ * <p>Members declared with a primitive type are written from, and read into, a {@link Union} without boxing. Decoded
+ * values are set with the encoded tag rather than being matched against the declared types again, so a union is always
+ * decoded with the same type it was encoded with. Lists are decoded as {@link ArrayList}s.</p>
+ *
+ * <p>Codecs are immutable, so they may be shared between threads.</p>
+ */
+public final class UnionCodec {
+    private final UnionSchema schema;
+    private final ValueCodec[] codecs;
+
+    // the codec of each member declared with a primitive type, which Union stores as raw bits, or null elsewhere
+    private final ScalarCodec[] scalarCodecs;
+
+    private UnionCodec(UnionSchema schema, ValueCodec[] codecs, ScalarCodec[] scalarCodecs) {
+        this.schema = schema;
+        this.codecs = codecs;
+        this.scalarCodecs = scalarCodecs;
+    }
+
+    /**
+     * Creates a codec for the values of unions of the given schema.
+     *
+     * @param schema The schema of the unions to be encoded.
+     * @return A new codec.
+     * @throws IllegalArgumentException If one of the declared types of the schema cannot be encoded.
+     */
+    public static UnionCodec of(UnionSchema schema) {
+        ValueCodec[] codecs = new ValueCodec[schema.size()];
+        ScalarCodec[] scalarCodecs = new ScalarCodec[schema.size()];
+        for (int i = 0; i < codecs.length; i++) {
+            codecs[i] = codecFor(schema.getType(i));
+            if (schema.primitiveType(i) != null) {
+                scalarCodecs[i] = (ScalarCodec) codecs[i];
+            }
+        }
+        return new UnionCodec(schema, codecs, scalarCodecs);
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Writes the value of the given union to the buffer, starting at its position.
+     *
+     * @param union The union to write, which must be of this codec's schema.
+     * @param buffer The buffer to write to.
+     * @throws IllegalArgumentException If the union is not of this codec's schema, or holds a list with a null element.
+     * @throws java.nio.BufferOverflowException If the buffer does not have enough space remaining.
+     */
+    public void write(Union union, ByteBuffer buffer) {
+        try {
+            write(union, new BufferSink(buffer));
+        } catch (IOException e) {
+            // buffers do not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the value of the given union to the output.
+     *
+     * @param union The union to write, which must be of this codec's schema.
+     * @param out The output to write to.
+     * @throws IOException If the output cannot be written to.
+     * @throws IllegalArgumentException If the union is not of this codec's schema, or holds a list with a null element.
+     */
+    public void write(Union union, DataOutput out) throws IOException {
+        write(union, new OutputSink(out));
+    }
+
+    /**
+     * Reads a union from the buffer, starting at its position.
+     *
+     * @param buffer The buffer to read from.
+     * @return A new union of this codec's schema holding the decoded value.
+     * @throws IllegalArgumentException If the encoded data is malformed.
+     * @throws BufferUnderflowException If the buffer ends before the encoded union.
+     */
+    public Union read(ByteBuffer buffer) {
+        Union union = Union.ofSchema(schema);
+        read(buffer, union);
+        return union;
+    }
+
+    /**
+     * Reads the value of a union from the buffer, starting at its position, into the given union.
+     *
+     * @param buffer The buffer to read from.
+     * @param union The union to set the decoded value of, which must be of this codec's schema.
+     * @throws IllegalArgumentException If the union is not of this codec's schema, or the encoded data is malformed.
+     * @throws BufferUnderflowException If the buffer ends before the encoded union.
+     */
+    public void read(ByteBuffer buffer, Union union) {
+        try {
+            read(new BufferSource(buffer), union);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a union from the input.
+     *
+     * @param in The input to read from.
+     * @return A new union of this codec's schema holding the decoded value.
+     * @throws IOException If the input cannot be read, including if it ends before the encoded union.
+     * @throws IllegalArgumentException If the encoded data is malformed.
+     */
+    public Union read(DataInput in) throws IOException {
+        Union union = Union.ofSchema(schema);
+        read(new InputSource(in), union);
+        return union;
+    }
+
+    private void write(Union union, Sink sink) throws IOException {
+        checkSchema(union);
+        int tag = union.getTag();
+        writeVarInt(sink, tag + 1);
+        if (tag < 0) {
+            return;
+        }
+        if (union.isPrimitive()) {
+            scalarCodecs[tag].writeBits(union.bits(), sink);
+        } else {
+            codecs[tag].write(union.rawValue(), sink);
+        }
+    }
+
+    private void read(Source source, Union union) throws IOException {
+        checkSchema(union);
+        int tag = readVarInt(source) - 1;
+        if (tag < -1 || tag >= codecs.length) {
+            throw new IllegalArgumentException("Invalid tag for " + schema + ": " + tag);
+        }
+        if (tag < 0) {
+            union.clear();
+        } else if (schema.primitiveType(tag) != null) {
+            union.setResolvedBits(tag, scalarCodecs[tag].readBits(source));
+        } else {
+            union.setResolved(codecs[tag].read(source), tag);
+        }
+    }
+
+    private void checkSchema(Union union) {
+        if (union.getSchema() != schema) {
+            throw new IllegalArgumentException(
+                "Union of " + union.getSchema() + " cannot be encoded by a codec of " + schema);
+        }
+    }
+
+    private static ValueCodec codecFor(Type type) {
+        if (type instanceof Class<?> cls) {
+            if (cls == String.class) {
+                return StringCodec.INSTANCE;
+            }
+            Class<?> primitive = unwrap(cls);
+            if (primitive != null) {
+                return new ScalarCodec(primitive);
+            }
+        } else if (type instanceof ParameterizedType pType && pType.getRawType() == List.class) {
+            return new ListCodec(codecFor(pType.getActualTypeArguments()[0]));
+        }
+        throw new IllegalArgumentException("Type cannot be encoded: " + type.getTypeName());
+    }
+
+    private static Class<?> unwrap(Class<?> cls) {
+        if (cls.isPrimitive()) {
+            return cls == void.class ? null : cls;
+        }
+        if (cls == Integer.class) return int.class;
+        if (cls == Long.class) return long.class;
+        if (cls == Double.class) return double.class;
+        if (cls == Float.class) return float.class;
+        if (cls == Boolean.class) return boolean.class;
+        if (cls == Character.class) return char.class;
+        if (cls == Byte.class) return byte.class;
+        if (cls == Short.class) return short.class;
+        return null;
+    }
+
+    private static void writeVarInt(Sink sink, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            sink.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        sink.writeByte(value);
+    }
+
+    private static void writeVarLong(Sink sink, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            sink.writeByte(((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        sink.writeByte((int) value);
+    }
+
+    private static int readVarInt(Source source) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = source.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long readVarLong(Source source) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = source.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readLength(Source source) throws IOException {
+        int length = readVarInt(source);
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid length: " + Integer.toUnsignedString(length));
+        }
+        return length;
+    }
+
+    /**
+     * The encoding of values of a single declared type.
+     */
+    private abstract static class ValueCodec {
+        abstract void write(Object value, Sink sink) throws IOException;
+
+        abstract Object read(Source source) throws IOException;
+    }
+
+    private static final class ScalarCodec extends ValueCodec {
+        private final Class<?> primitive;
+
+        ScalarCodec(Class<?> primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        void write(Object value, Sink sink) throws IOException {
+            writeBits(Primitives.toBits(value), sink);
+        }
+
+        @Override
+        Object read(Source source) throws IOException {
+            return Primitives.box(primitive, readBits(source));
+        }
+
+        // also used directly for members declared with a primitive type, which Union stores as raw bits
+        void writeBits(long bits, Sink sink) throws IOException {
+            if (primitive == long.class) {
+                writeVarLong(sink, (bits << 1) ^ (bits >> 63));
+            } else if (primitive == double.class) {
+                sink.writeLong(bits);
+            } else if (primitive == float.class) {
+                sink.writeInt((int) bits);
+            } else if (primitive == boolean.class) {
+                sink.writeByte((int) bits);
+            } else if (primitive == char.class) {
+                writeVarInt(sink, (int) bits);
+            } else {
+                // int, short and byte, which are all sign extended into the slot
+                int value = (int) bits;
+                writeVarInt(sink, (value << 1) ^ (value >> 31));
+            }
+        }
+
+        long readBits(Source source) throws IOException {
+            if (primitive == long.class) {
+                long value = readVarLong(source);
+                return (value >>> 1) ^ -(value & 1);
+            } else if (primitive == double.class) {
+                return source.readLong();
+            } else if (primitive == float.class) {
+                return source.readInt();
+            } else if (primitive == boolean.class) {
+                return source.readByte() != 0 ? 1L : 0L;
+            } else if (primitive == char.class) {
+                return (char) readVarInt(source);
+            }
+            int value = readVarInt(source);
+            value = (value >>> 1) ^ -(value & 1);
+            return primitive == short.class ? (short) value : primitive == byte.class ? (byte) value : value;
+        }
+    }
+
+    private static final class StringCodec extends ValueCodec {
+        static final StringCodec INSTANCE = new StringCodec();
+
+        @Override
+        void write(Object value, Sink sink) throws IOException {
+            String s = (String) value;
+            writeVarInt(sink, utf8Length(s));
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    sink.writeByte(c);
+                } else if (c < 0x800) {
+                    sink.writeByte(0xC0 | (c >> 6));
+                    sink.writeByte(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    sink.writeByte(0xF0 | (codePoint >> 18));
+                    sink.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                    sink.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                    sink.writeByte(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // an unpaired surrogate cannot be encoded, so it is replaced as String.getBytes would
+                    sink.writeByte('?');
+                } else {
+                    sink.writeByte(0xE0 | (c >> 12));
+                    sink.writeByte(0x80 | ((c >> 6) & 0x3F));
+                    sink.writeByte(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        @Override
+        Object read(Source source) throws IOException {
+            return source.readUtf8(readLength(source));
+        }
+
+        private static int utf8Length(String s) {
+            int length = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length += 1;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+    }
+
+    private static final class ListCodec extends ValueCodec {
+        // the initial capacity of decoded lists is capped, so a corrupt size cannot exhaust memory up front
+        private static final int MAX_INITIAL_CAPACITY = 1024;
+
+        private final ValueCodec elementCodec;
+
+        ListCodec(ValueCodec elementCodec) {
+            this.elementCodec = elementCodec;
+        }
+
+        @Override
+        void write(Object value, Sink sink) throws IOException {
+            List<?> list = (List<?>) value;
+            int size = list.size();
+            writeVarInt(sink, size);
+            // indexed access avoids allocating an iterator for the common RandomAccess lists
+            if (list instanceof RandomAccess) {
+                for (int i = 0; i < size; i++) {
+                    elementCodec.write(requireElement(list.get(i)), sink);
+                }
+            } else {
+                for (Object element : list) {
+                    elementCodec.write(requireElement(element), sink);
+                }
+            }
+        }
+
+        @Override
+        Object read(Source source) throws IOException {
+            int size = readLength(source);
+            List<Object> list = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < size; i++) {
+                list.add(elementCodec.read(source));
+            }
+            return list;
+        }
+
+        private static Object requireElement(Object element) {
+            if (element == null) {
+                throw new IllegalArgumentException("Lists with null elements cannot be encoded");
+            }
+            return element;
+        }
+    }
+
+    /**
+     * The destination of encoded bytes. Multi-byte values are always written in big-endian order.
+     */
+    private interface Sink {
+        void writeByte(int b) throws IOException;
+
+        void writeInt(int v) throws IOException;
+
+        void writeLong(long v) throws IOException;
+    }
+
+    /**
+     * The source of encoded bytes. Multi-byte values are always read in big-endian order.
+     */
+    private interface Source {
+        byte readByte() throws IOException;
+
+        int readInt() throws IOException;
+
+        long readLong() throws IOException;
+
+        String readUtf8(int length) throws IOException;
+    }
+
+    private static final class BufferSink implements Sink {
+        private final ByteBuffer buffer;
+        private final boolean bigEndian;
+
+        BufferSink(ByteBuffer buffer) {
+            this.buffer = Objects.requireNonNull(buffer, "buffer");
+            this.bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        }
+
+        @Override
+        public void writeByte(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void writeInt(int v) {
+            buffer.putInt(bigEndian ? v : Integer.reverseBytes(v));
+        }
+
+        @Override
+        public void writeLong(long v) {
+            buffer.putLong(bigEndian ? v : Long.reverseBytes(v));
+        }
+    }
+
+    private static final class BufferSource implements Source {
+        private final ByteBuffer buffer;
+        private final boolean bigEndian;
+
+        BufferSource(ByteBuffer buffer) {
+            this.buffer = Objects.requireNonNull(buffer, "buffer");
+            this.bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        }
+
+        @Override
+        public byte readByte() {
+            return buffer.get();
+        }
+
+        @Override
+        public int readInt() {
+            int v = buffer.getInt();
+            return bigEndian ? v : Integer.reverseBytes(v);
+        }
+
+        @Override
+        public long readLong() {
+            long v = buffer.getLong();
+            return bigEndian ? v : Long.reverseBytes(v);
+        }
+
+        @Override
+        public String readUtf8(int length) {
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            String s;
+            if (buffer.hasArray()) {
+                // decode straight from the backing array, without copying the bytes first
+                s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                s = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return s;
+        }
+    }
+
+    private static final class OutputSink implements Sink {
+        private final DataOutput out;
+
+        OutputSink(DataOutput out) {
+            this.out = Objects.requireNonNull(out, "out");
+        }
+
+        @Override
+        public void writeByte(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void writeInt(int v) throws IOException {
+            out.writeInt(v);
+        }
+
+        @Override
+        public void writeLong(long v) throws IOException {
+            out.writeLong(v);
+        }
+    }
+
+    private static final class InputSource implements Source {
+        private final DataInput in;
+
+        InputSource(DataInput in) {
+            this.in = Objects.requireNonNull(in, "in");
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return in.readByte();
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            return in.readLong();
+        }
+
+        @Override
+        public String readUtf8(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
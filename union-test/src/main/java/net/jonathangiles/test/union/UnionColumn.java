@@ -0,0 +1,291 @@
+package net.jonathangiles.test.union;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+/**
+ * A fixed-length array of union values of a schema whose declared types are all primitive, such as
+ * {@code int | float | double}, stored in columnar form outside of the heap rather than as {@link Union} objects.
+ *
+ * <p>Each element takes nine bytes: one in a column of tags, and eight in a column of payloads, which hold the raw bits
+ * of the values in the same form as {@link Union} does. Values are read and written without boxing through the typed
+ * accessors such as {@link #getInt(int)} and {@link #setDouble(int, double)}. A tag is stored as its value plus one,
+ * so zeroed memory (such as a newly created file) is a column of empty elements.</p>
+ *
+ * <p>A column is either allocated from direct memory with {@link #allocate(UnionSchema, int)}, or backed by a
+ * memory-mapped file with {@link #map(UnionSchema, FileChannel, FileChannel.MapMode, long, int)}, so that datasets
+ * larger than the heap can be scanned. The layout of the mapped region is the tags column, padded to a multiple of eight
+ * bytes, followed by the payloads column, with every payload in little-endian order; {@link #byteSize(int)} gives its
+ * size.</p>
+ *
+ * <p>Columns are not thread safe.</p>
+ */
+public final class UnionColumn {
+    private static final int PAYLOAD_BYTES = Long.BYTES;
+
+    private final UnionSchema schema;
+    private final int length;
+    private final ByteBuffer tags;
+    private final ByteBuffer payloads;
+
+    private UnionColumn(UnionSchema schema, int length, ByteBuffer tags, ByteBuffer payloads) {
+        this.schema = schema;
+        this.length = length;
+        this.tags = tags;
+        this.payloads = payloads;
+    }
+
+    /**
+     * Allocates a column of the given length from direct memory, with every element empty.
+     *
+     * @param schema The schema of the elements, whose declared types must all be primitive.
+     * @param length The number of elements.
+     * @return A new column.
+     * @throws IllegalArgumentException If the schema declares a type that is not primitive, or the length is negative
+     * or too large to be held in a single buffer.
+     */
+    public static UnionColumn allocate(UnionSchema schema, int length) {
+        checkSchema(schema);
+        return wrap(schema, ByteBuffer.allocateDirect(checkedByteSize(length)), length);
+    }
+
+    /**
+     * Maps a column of the given length from a region of a file, starting at the given position. The region is
+     * {@link #byteSize(int)} bytes long, and if the channel was opened for writing and the file is smaller than the
+     * region, the file is extended with empty elements.
+     *
+     * @param schema The schema of the elements, whose declared types must all be primitive.
+     * @param channel The channel of the file to map.
+     * @param mode The mode to map the file with; a column mapped read-only throws
+     * {@link java.nio.ReadOnlyBufferException} from its setters.
+     * @param position The position in the file of the start of the column.
+     * @param length The number of elements.
+     * @return A new column backed by the file.
+     * @throws IOException If the file cannot be mapped.
+     * @throws IllegalArgumentException If the schema declares a type that is not primitive, or the length is negative
+     * or too large to be held in a single buffer.
+     */
+    public static UnionColumn map(UnionSchema schema, FileChannel channel, FileChannel.MapMode mode, long position,
+                                  int length) throws IOException {
+        checkSchema(schema);
+        return wrap(schema, channel.map(mode, position, checkedByteSize(length)), length);
+    }
+
+    /**
+     * Returns the number of bytes taken by a column of the given length.
+     *
+     * @param length The number of elements.
+     * @return The size of the column in bytes.
+     */
+    public static long byteSize(int length) {
+        return tagsSize(length) + (long) length * PAYLOAD_BYTES;
+    }
+
+    private static UnionColumn wrap(UnionSchema schema, ByteBuffer buffer, int length) {
+        int tagsSize = (int) tagsSize(length);
+        ByteBuffer tags = buffer.slice(0, length);
+        ByteBuffer payloads = buffer.slice(tagsSize, length * PAYLOAD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        return new UnionColumn(schema, length, tags, payloads);
+    }
+
+    private static long tagsSize(int length) {
+        return ((long) length + PAYLOAD_BYTES - 1) & -PAYLOAD_BYTES;
+    }
+
+    private static int checkedByteSize(int length) {
+        if (length < 0 || byteSize(length) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid column length: " + length);
+        }
+        return (int) byteSize(length);
+    }
+
+    private static void checkSchema(UnionSchema schema) {
+        Objects.requireNonNull(schema, "schema");
+        for (int i = 0; i < schema.size(); i++) {
+            if (schema.primitiveType(i) == null) {
+                throw new IllegalArgumentException("Columns may only declare primitive types, but " + schema
+                    + " declares " + schema.getType(i).getTypeName());
+            }
+        }
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the number of elements in this column.
+     *
+     * @return The length of this column.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the index into the declared types of the schema of the element at the given index, or -1 if the
+     * element is empty.
+     *
+     * @param index The index of the element.
+     * @return The tag of the element, or -1.
+     */
+    public int getTag(int index) {
+        return tags.get(index) - 1;
+    }
+
+    /**
+     * Returns the boxed value of the element at the given index, or null if the element is empty.
+     *
+     * @param index The index of the element.
+     * @return The value of the element, or null.
+     */
+    public Object getValue(int index) {
+        int tag = getTag(index);
+        return tag < 0 ? null : Primitives.box(schema.primitiveType(tag), payloads.getLong(index * PAYLOAD_BYTES));
+    }
+
+    public int getInt(int index) {
+        return (int) checkedBits(index, schema.intSlot(), "int");
+    }
+
+    public long getLong(int index) {
+        return checkedBits(index, schema.longSlot(), "long");
+    }
+
+    public float getFloat(int index) {
+        return Float.intBitsToFloat((int) checkedBits(index, schema.floatSlot(), "float"));
+    }
+
+    public double getDouble(int index) {
+        return Double.longBitsToDouble(checkedBits(index, schema.doubleSlot(), "double"));
+    }
+
+    /**
+     * Copies the element at the given index into the given union, which must be of this column's schema.
+     *
+     * @param index The index of the element.
+     * @param union The union to set to the value of the element.
+     * @throws IllegalArgumentException If the union is not of this column's schema.
+     */
+    public void get(int index, Union union) {
+        checkUnion(union);
+        int tag = getTag(index);
+        if (tag < 0) {
+            union.clear();
+        } else {
+            union.setResolvedBits(tag, payloads.getLong(index * PAYLOAD_BYTES));
+        }
+    }
+
+    public void setInt(int index, int value) {
+        put(index, checkedSlot(schema.intSlot(), "int"), value);
+    }
+
+    public void setLong(int index, long value) {
+        put(index, checkedSlot(schema.longSlot(), "long"), value);
+    }
+
+    public void setFloat(int index, float value) {
+        put(index, checkedSlot(schema.floatSlot(), "float"), Float.floatToRawIntBits(value));
+    }
+
+    public void setDouble(int index, double value) {
+        put(index, checkedSlot(schema.doubleSlot(), "double"), Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Sets the element at the given index to the given boxed value, which is matched to a declared type as
+     * {@link Union#setValue(Object)} would.
+     *
+     * @param index The index of the element.
+     * @param value The value to set.
+     * @throws InvalidTypeException If the value is null or not of any of the declared types.
+     */
+    public void setValue(int index, Object value) {
+        int tag = schema.resolve(value);
+        if (tag < 0) {
+            throw schema.invalidType(value, -1);
+        }
+        put(index, tag, Primitives.toBits(value));
+    }
+
+    /**
+     * Sets the element at the given index to the value of the given union, which must be of this column's schema.
+     *
+     * @param index The index of the element.
+     * @param union The union whose value is copied.
+     * @throws IllegalArgumentException If the union is not of this column's schema.
+     */
+    public void set(int index, Union union) {
+        checkUnion(union);
+        int tag = union.getTag();
+        if (tag < 0) {
+            clear(index);
+        } else {
+            put(index, tag, union.bits());
+        }
+    }
+
+    /**
+     * Makes the element at the given index empty.
+     *
+     * @param index The index of the element.
+     */
+    public void clear(int index) {
+        tags.put(index, (byte) 0);
+        payloads.putLong(index * PAYLOAD_BYTES, 0L);
+    }
+
+    /**
+     * Sets every element from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive, to the value of the given
+     * union, which must be of this column's schema.
+     *
+     * @param fromIndex The index of the first element to set.
+     * @param toIndex The index after the last element to set.
+     * @param union The union whose value is copied.
+     * @throws IllegalArgumentException If the union is not of this column's schema.
+     * @throws IndexOutOfBoundsException If the range is not within this column.
+     */
+    public void fill(int fromIndex, int toIndex, Union union) {
+        checkUnion(union);
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        byte tag = (byte) (union.getTag() + 1);
+        long bits = tag == 0 ? 0L : union.bits();
+        for (int i = fromIndex; i < toIndex; i++) {
+            tags.put(i, tag);
+        }
+        for (int i = fromIndex; i < toIndex; i++) {
+            payloads.putLong(i * PAYLOAD_BYTES, bits);
+        }
+    }
+
+    private void put(int index, int tag, long bits) {
+        // the payload is written first, so that a failed write does not leave a tag for the previous payload
+        payloads.putLong(index * PAYLOAD_BYTES, bits);
+        tags.put(index, (byte) (tag + 1));
+    }
+
+    private long checkedBits(int index, int slot, String type) {
+        if (slot < 0 || getTag(index) != slot) {
+            throw new IllegalArgumentException("Value is not of type: " + type);
+        }
+        return payloads.getLong(index * PAYLOAD_BYTES);
+    }
+
+    private int checkedSlot(int slot, String type) {
+        if (slot < 0) {
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+        return slot;
+    }
+
+    private void checkUnion(Union union) {
+        if (union.getSchema() != schema) {
+            throw new IllegalArgumentException(
+                "Union of " + union.getSchema() + " cannot be stored in a column of " + schema);
+        }
+    }
+}
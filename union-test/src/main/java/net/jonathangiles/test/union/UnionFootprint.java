@@ -0,0 +1,199 @@
+package net.jonathangiles.test.union;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estimates how much heap unions and their schemas take, for sizing caches that hold large numbers of them.
+ *
+ * <p>Sizes are computed from a {@link Layout} model of how HotSpot lays out objects: an object header, followed by
+ * the fields of the class and its superclasses packed largest first, with smaller fields filling the gap between a
+ * header that is not a multiple of eight bytes and the first eight-byte field, all rounded up to the object alignment.
+ * Arrays have a header, a four-byte length, and their elements from the next multiple of eight bytes. This matches
+ * HotSpot's layout for the classes of this library, although other JVMs, or classes with unusual field mixes, may be
+ * laid out differently.</p>
+ */
+public final class UnionFootprint {
+    private UnionFootprint() {
+    }
+
+    /**
+     * A model of the object layout of a JVM.
+     *
+     * @param headerBytes The size of an object header, in bytes.
+     * @param referenceBytes The size of a reference field, in bytes.
+     * @param alignment The alignment of objects, in bytes.
+     */
+    public record Layout(int headerBytes, int referenceBytes, int alignment) {
+        /**
+         * The layout of a 64-bit HotSpot JVM with compressed references and class pointers, which is the default for
+         * heaps under 32 GB.
+         */
+        public static final Layout COMPRESSED_OOPS = new Layout(12, 4, 8);
+
+        /**
+         * The layout of a 64-bit HotSpot JVM with neither compressed references nor compressed class pointers.
+         */
+        public static final Layout UNCOMPRESSED = new Layout(16, 8, 8);
+
+        public Layout {
+            if (headerBytes <= 0 || (referenceBytes != 4 && referenceBytes != 8) || Integer.bitCount(alignment) != 1
+                    || alignment < 8) {
+                throw new IllegalArgumentException("Invalid layout: header " + headerBytes + ", reference "
+                    + referenceBytes + ", alignment " + alignment);
+            }
+        }
+
+        /**
+         * Returns the layout of the running JVM, as reported by its HotSpot diagnostic options, or
+         * {@link #COMPRESSED_OOPS} if they are not available.
+         *
+         * @return The layout of the running JVM.
+         */
+        public static Layout current() {
+            try {
+                com.sun.management.HotSpotDiagnosticMXBean hotSpot =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+                boolean compressedOops = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+                boolean compressedClasses =
+                    Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedClassPointers").getValue());
+                int alignment = Integer.parseInt(hotSpot.getVMOption("ObjectAlignmentInBytes").getValue());
+                return new Layout(compressedClasses ? 12 : 16, compressedOops ? 4 : 8, alignment);
+            } catch (RuntimeException | LinkageError e) {
+                // not a HotSpot JVM, or the management module is not present
+                return COMPRESSED_OOPS;
+            }
+        }
+
+        /**
+         * Returns the size of an instance of the given class, not counting any objects it refers to.
+         *
+         * @param cls The class, which must not be an array class.
+         * @return The size of an instance, in bytes.
+         */
+        public long instanceSize(Class<?> cls) {
+            if (cls.isArray() || cls.isPrimitive()) {
+                throw new IllegalArgumentException("Not an instance class: " + cls.getName());
+            }
+            List<Integer> sizes = new ArrayList<>();
+            for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        sizes.add(fieldSize(field.getType()));
+                    }
+                }
+            }
+            sizes.sort(Collections.reverseOrder());
+
+            long size = headerBytes;
+            boolean hasLongFields = !sizes.isEmpty() && sizes.get(0) == 8;
+            int gap = hasLongFields ? (int) (align(size, 8) - size) : 0;
+            // fields that fit in the gap before the first eight-byte field are placed there, largest first
+            List<Integer> remaining = new ArrayList<>(sizes);
+            for (int i = 0; i < remaining.size() && gap > 0; ) {
+                int fieldSize = remaining.get(i);
+                if (fieldSize <= gap) {
+                    gap -= fieldSize;
+                    remaining.remove(i);
+                } else {
+                    i++;
+                }
+            }
+            size += (hasLongFields ? align(size, 8) - size : 0);
+            for (int fieldSize : remaining) {
+                size += fieldSize;
+            }
+            return align(size, alignment);
+        }
+
+        /**
+         * Returns the size of an array of the given component type and length, not counting any objects it refers to.
+         *
+         * @param componentType The component type of the array.
+         * @param length The length of the array.
+         * @return The size of the array, in bytes.
+         */
+        public long arraySize(Class<?> componentType, int length) {
+            long base = align(headerBytes + 4, 8);
+            return align(base + (long) length * fieldSize(componentType), alignment);
+        }
+
+        /**
+         * Returns the size of the given string, including its array of characters.
+         *
+         * @param s The string.
+         * @return The size of the string, in bytes.
+         */
+        public long stringSize(String s) {
+            boolean latin1 = s.chars().allMatch(c -> c < 0x100);
+            return instanceSize(String.class) + arraySize(byte.class, latin1 ? s.length() : s.length() * 2);
+        }
+
+        private int fieldSize(Class<?> type) {
+            if (type == long.class || type == double.class) return 8;
+            if (type == int.class || type == float.class) return 4;
+            if (type == short.class || type == char.class) return 2;
+            if (type == byte.class || type == boolean.class) return 1;
+            return referenceBytes;
+        }
+
+        private static long align(long size, int alignment) {
+            return (size + alignment - 1) & -alignment;
+        }
+    }
+
+    /**
+     * Returns the size of a single {@link Union} in the given layout, not counting its value or schema, which is what
+     * each additional union of a schema costs when its values are primitive or shared.
+     *
+     * @param layout The layout to estimate with.
+     * @return The size of a union, in bytes.
+     */
+    public static long unionBytes(Layout layout) {
+        return layout.instanceSize(Union.class);
+    }
+
+    /**
+     * Returns the size of the given number of unions held in an array, not counting their values or schemas.
+     *
+     * @param count The number of unions.
+     * @param layout The layout to estimate with.
+     * @return The size of the unions and the array holding them, in bytes.
+     */
+    public static long unionArrayBytes(int count, Layout layout) {
+        return count * unionBytes(layout) + layout.arraySize(Union.class, count);
+    }
+
+    /**
+     * Returns the size of the data held by the given schema, which is shared by every union of the schema: the schema
+     * itself, its arrays and lists of declared types, the cached names of the types, and its dispatch plan. The
+     * declared types themselves are not counted, nor are the per-class entries of the dispatch plan, which grow with
+     * the number of runtime classes resolved, nor the metrics of the schema, if enabled.
+     *
+     * @param schema The schema.
+     * @param layout The layout to estimate with.
+     * @return The size of the schema, in bytes.
+     */
+    public static long schemaBytes(UnionSchema schema, Layout layout) {
+        Objects.requireNonNull(schema, "schema");
+        int n = schema.size();
+        long size = layout.instanceSize(UnionSchema.class);
+        // types, primitiveTypes and typeNames
+        size += 3 * layout.arraySize(Object.class, n);
+        // typeList, an unmodifiable view of a fixed-size list of the types array
+        size += layout.instanceSize(Collections.unmodifiableList(new ArrayList<>()).getClass());
+        size += layout.instanceSize(Arrays.asList().getClass());
+        size += layout.stringSize(schema.typesString());
+        for (int i = 0; i < n; i++) {
+            size += layout.stringSize(schema.typeName(i));
+        }
+        size += layout.instanceSize(DispatchPlan.class) + layout.instanceSize(ClassValue.class);
+        return size;
+    }
+}
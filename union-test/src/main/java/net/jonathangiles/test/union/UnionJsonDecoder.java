@@ -0,0 +1,389 @@
+package net.jonathangiles.test.union;
+
+import net.jonathangiles.test.union.json.JsonReader;
+import net.jonathangiles.test.union.json.JsonToken;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decodes the values of unions of a single {@link UnionSchema} directly from a {@link JsonReader}, choosing the member
+ * from the JSON tokens as they are read, rather than parsing a document into a tree and then matching its values
+ * against the declared types with {@link Union#setValue(Object)}.
+ *
+ * <p>The supported declared types, and the JSON values they are decoded from, are:</p>
+ *
+ * <ul>
+ *     <li>{@code String}, from a string;</li>
+ *     <li>{@code boolean} and {@code Boolean}, from {@code true} or {@code false};</li>
+ *     <li>the numeric primitives and their wrappers, from a number. The first numeric member that can represent the
+ *     number is chosen, where integral types only accept numbers without a fraction or exponent that are within their
+ *     range, and {@code float} and {@code double} accept any finite number;</li>
+ *     <li>{@code List<T>}, where {@code T} is any of the above or another such list, from an array.</li>
+ * </ul>
+ *
+ * <p>An array is decoded as the first list member that accepts its first element, and each following element is
+ * decoded into the list as it is read, so each element is only examined once and the decoded value is not scanned
+ * again when it is set. If an element is not accepted by the chosen member, such as {@code 1.5} in an array that
+ * started with {@code 1}, the list moves to the next list member that accepts it and every element read so far, and
+ * those elements are converted in place. Arrays of arrays are decoded as the first list member whose elements are
+ * lists. A JSON {@code null} leaves the union empty.</p>
+ *
+ * <p>Decoders are immutable, so they may be shared between threads.</p>
+ */
+public final class UnionJsonDecoder {
+    private final UnionSchema schema;
+    private final int stringTag;
+    private final int booleanTag;
+    private final int[] numberTags;
+    private final NumberKind[] numberKinds;
+    private final int[] listTags;
+    private final ElementDecoder[] listElements;
+
+    private UnionJsonDecoder(UnionSchema schema) {
+        this.schema = schema;
+        int string = -1;
+        int bool = -1;
+        List<Integer> numbers = new ArrayList<>();
+        List<Integer> lists = new ArrayList<>();
+        for (int i = 0; i < schema.size(); i++) {
+            Type type = schema.getType(i);
+            if (type == String.class) {
+                string = string < 0 ? i : string;
+            } else if (type == boolean.class || type == Boolean.class) {
+                bool = bool < 0 ? i : bool;
+            } else if (type instanceof Class<?> cls && NumberKind.of(cls) != null) {
+                numbers.add(i);
+            } else if (type instanceof ParameterizedType && elementDecoder(type) instanceof ListDecoder) {
+                lists.add(i);
+            } else {
+                throw new IllegalArgumentException("Type cannot be decoded from JSON: " + type.getTypeName());
+            }
+        }
+        this.stringTag = string;
+        this.booleanTag = bool;
+        this.numberTags = numbers.stream().mapToInt(Integer::intValue).toArray();
+        this.numberKinds = new NumberKind[numberTags.length];
+        for (int i = 0; i < numberTags.length; i++) {
+            numberKinds[i] = NumberKind.of((Class<?>) schema.getType(numberTags[i]));
+        }
+        this.listTags = lists.stream().mapToInt(Integer::intValue).toArray();
+        this.listElements = new ElementDecoder[listTags.length];
+        for (int i = 0; i < listTags.length; i++) {
+            listElements[i] = ((ListDecoder) elementDecoder(schema.getType(listTags[i]))).element;
+        }
+    }
+
+    /**
+     * Creates a decoder for unions of the given schema.
+     *
+     * @param schema The schema of the unions to be decoded.
+     * @return A new decoder.
+     * @throws IllegalArgumentException If one of the declared types of the schema cannot be decoded from JSON.
+     */
+    public static UnionJsonDecoder of(UnionSchema schema) {
+        return new UnionJsonDecoder(Objects.requireNonNull(schema, "schema"));
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Decodes the next value of the reader into a new union.
+     *
+     * @param reader The reader positioned before the value.
+     * @return A new union of this decoder's schema holding the decoded value.
+     * @throws IOException If the input cannot be read or is malformed.
+     * @throws IllegalArgumentException If the value is not accepted by any of the declared types.
+     */
+    public Union decode(JsonReader reader) throws IOException {
+        Union union = Union.ofSchema(schema);
+        decode(reader, union);
+        return union;
+    }
+
+    /**
+     * Decodes the next value of the reader into the given union. If the value is not accepted by any of the declared
+     * types, the union is left unchanged, but the reader may have consumed some or all of the value.
+     *
+     * @param reader The reader positioned before the value.
+     * @param union The union to set the decoded value of, which must be of this decoder's schema.
+     * @throws IOException If the input cannot be read or is malformed.
+     * @throws IllegalArgumentException If the union is not of this decoder's schema, or the value is not accepted by
+     * any of the declared types.
+     */
+    public void decode(JsonReader reader, Union union) throws IOException {
+        if (union.getSchema() != schema) {
+            throw new IllegalArgumentException(
+                "Union of " + union.getSchema() + " cannot be decoded by a decoder of " + schema);
+        }
+        JsonToken token = reader.peek();
+        switch (token) {
+            case STRING -> union.setResolved(reader.nextString(), checkedTag(stringTag, "a string"));
+            case BOOLEAN -> union.setResolved(reader.nextBoolean(), checkedTag(booleanTag, "a boolean"));
+            case NUMBER -> decodeNumber(reader.nextNumber(), union);
+            case BEGIN_ARRAY -> decodeList(reader, union);
+            case NULL -> {
+                reader.nextNull();
+                union.clear();
+            }
+            default -> throw new IllegalStateException("Expected a value but was " + token + " at "
+                + reader.getLocation());
+        }
+    }
+
+    private void decodeNumber(String text, Union union) {
+        for (int i = 0; i < numberKinds.length; i++) {
+            Object value = numberKinds[i].parse(text);
+            if (value != null) {
+                union.setResolved(value, numberTags[i]);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No member of " + schema + " accepts the number " + text);
+    }
+
+    private void decodeList(JsonReader reader, Union union) throws IOException {
+        checkedTag(listTags.length == 0 ? -1 : listTags[0], "an array");
+        reader.beginArray();
+        List<Object> list = new ArrayList<>();
+        int candidate = 0;
+        if (reader.hasNext() && reader.peek() == JsonToken.BEGIN_ARRAY) {
+            // arrays of arrays are decoded by the first member of lists of lists, as they are not converted
+            while (candidate < listElements.length && !(listElements[candidate] instanceof ListDecoder)) {
+                candidate++;
+            }
+            if (candidate == listElements.length) {
+                throw new IllegalArgumentException("No member of " + schema + " accepts an array of arrays");
+            }
+        }
+        while (reader.hasNext()) {
+            ElementDecoder decoder = listElements[candidate];
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                list.add(decoder.decodeArray(reader));
+                continue;
+            }
+            String text = readScalar(reader, token);
+            Object element = decoder.decodeScalar(token, text);
+            while (element == null) {
+                candidate = promote(list, candidate, token, text);
+                element = listElements[candidate].decodeScalar(token, text);
+            }
+            list.add(element);
+        }
+        reader.endArray();
+        union.setResolved(list, listTags[candidate]);
+    }
+
+    /**
+     * Finds the next list member after the given one that accepts the given element and every element decoded so
+     * far, and converts those elements to it in place.
+     */
+    private int promote(List<Object> list, int candidate, JsonToken token, String text) {
+        search:
+        for (int next = candidate + 1; next < listElements.length; next++) {
+            ElementDecoder decoder = listElements[next];
+            if (decoder.decodeScalar(token, text) == null) {
+                continue;
+            }
+            Object[] converted = new Object[list.size()];
+            for (int i = 0; i < converted.length; i++) {
+                converted[i] = reconvert(decoder, list.get(i));
+                if (converted[i] == null) {
+                    continue search;
+                }
+            }
+            for (int i = 0; i < converted.length; i++) {
+                list.set(i, converted[i]);
+            }
+            return next;
+        }
+        throw new IllegalArgumentException("No member of " + schema + " accepts the array element " + text);
+    }
+
+    private static Object reconvert(ElementDecoder decoder, Object element) {
+        if (element instanceof String s) {
+            return decoder.decodeScalar(JsonToken.STRING, s);
+        } else if (element instanceof Boolean b) {
+            return decoder.decodeScalar(JsonToken.BOOLEAN, b.toString());
+        } else if (element instanceof Number n) {
+            return decoder.decodeScalar(JsonToken.NUMBER, n.toString());
+        }
+        return null;
+    }
+
+    private int checkedTag(int tag, String description) {
+        if (tag < 0) {
+            throw new IllegalArgumentException("No member of " + schema + " accepts " + description);
+        }
+        return tag;
+    }
+
+    private static String readScalar(JsonReader reader, JsonToken token) throws IOException {
+        return switch (token) {
+            case STRING -> reader.nextString();
+            case NUMBER -> reader.nextNumber();
+            case BOOLEAN -> Boolean.toString(reader.nextBoolean());
+            case NULL -> throw new IllegalArgumentException("Lists may not contain null, at " + reader.getLocation());
+            default -> throw new IllegalStateException("Expected a value but was " + token + " at "
+                + reader.getLocation());
+        };
+    }
+
+    private static ElementDecoder elementDecoder(Type type) {
+        if (type == String.class) {
+            return StringDecoder.INSTANCE;
+        } else if (type == Boolean.class) {
+            return BooleanDecoder.INSTANCE;
+        } else if (type instanceof Class<?> cls && !cls.isPrimitive() && NumberKind.of(cls) != null) {
+            return NumberKind.of(cls);
+        } else if (type instanceof ParameterizedType pType && pType.getRawType() == List.class) {
+            ElementDecoder element = elementDecoder(pType.getActualTypeArguments()[0]);
+            return element == null ? null : new ListDecoder(element);
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the elements of a list member.
+     */
+    private interface ElementDecoder {
+        /**
+         * Decodes a scalar from its token and text, or returns null if it is not accepted.
+         */
+        Object decodeScalar(JsonToken token, String text);
+
+        /**
+         * Decodes an array.
+         */
+        default Object decodeArray(JsonReader reader) throws IOException {
+            throw new IllegalArgumentException("Unexpected array at " + reader.getLocation());
+        }
+    }
+
+    private enum NumberKind implements ElementDecoder {
+        BYTE(Byte.MIN_VALUE, Byte.MAX_VALUE),
+        SHORT(Short.MIN_VALUE, Short.MAX_VALUE),
+        INT(Integer.MIN_VALUE, Integer.MAX_VALUE),
+        LONG(Long.MIN_VALUE, Long.MAX_VALUE),
+        FLOAT(0, 0),
+        DOUBLE(0, 0);
+
+        private final long min;
+        private final long max;
+
+        NumberKind(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        static NumberKind of(Class<?> cls) {
+            if (cls == int.class || cls == Integer.class) return INT;
+            if (cls == long.class || cls == Long.class) return LONG;
+            if (cls == double.class || cls == Double.class) return DOUBLE;
+            if (cls == float.class || cls == Float.class) return FLOAT;
+            if (cls == short.class || cls == Short.class) return SHORT;
+            if (cls == byte.class || cls == Byte.class) return BYTE;
+            return null;
+        }
+
+        /**
+         * Returns the boxed value of the number, or null if it cannot be represented by this kind.
+         */
+        Object parse(String text) {
+            if (this == FLOAT) {
+                float value = Float.parseFloat(text);
+                return Float.isInfinite(value) ? null : value;
+            } else if (this == DOUBLE) {
+                double value = Double.parseDouble(text);
+                return Double.isInfinite(value) ? null : value;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    return null;
+                }
+            }
+            long value;
+            try {
+                value = Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // out of the range of a long
+                return null;
+            }
+            if (value < min || value > max) {
+                return null;
+            }
+            return switch (this) {
+                case BYTE -> (byte) value;
+                case SHORT -> (short) value;
+                case INT -> (int) value;
+                default -> value;
+            };
+        }
+
+        @Override
+        public Object decodeScalar(JsonToken token, String text) {
+            return token == JsonToken.NUMBER ? parse(text) : null;
+        }
+    }
+
+    private static final class StringDecoder implements ElementDecoder {
+        static final StringDecoder INSTANCE = new StringDecoder();
+
+        @Override
+        public Object decodeScalar(JsonToken token, String text) {
+            return token == JsonToken.STRING ? text : null;
+        }
+    }
+
+    private static final class BooleanDecoder implements ElementDecoder {
+        static final BooleanDecoder INSTANCE = new BooleanDecoder();
+
+        @Override
+        public Object decodeScalar(JsonToken token, String text) {
+            return token == JsonToken.BOOLEAN ? Boolean.valueOf(text) : null;
+        }
+    }
+
+    private static final class ListDecoder implements ElementDecoder {
+        final ElementDecoder element;
+
+        ListDecoder(ElementDecoder element) {
+            this.element = element;
+        }
+
+        @Override
+        public Object decodeScalar(JsonToken token, String text) {
+            return null;
+        }
+
+        @Override
+        public Object decodeArray(JsonReader reader) throws IOException {
+            reader.beginArray();
+            List<Object> list = new ArrayList<>();
+            while (reader.hasNext()) {
+                JsonToken token = reader.peek();
+                if (token == JsonToken.BEGIN_ARRAY) {
+                    list.add(element.decodeArray(reader));
+                } else {
+                    String text = readScalar(reader, token);
+                    Object value = element.decodeScalar(token, text);
+                    if (value == null) {
+                        throw new IllegalArgumentException("Invalid list element " + text + " at "
+                            + reader.getLocation());
+                    }
+                    list.add(value);
+                }
+            }
+            reader.endArray();
+            return list;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package net.jonathangiles.test.union;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**
+ * An exhaustive, reusable matcher over the values of unions of a single {@link UnionSchema}, with one handler per
+ * declared type.
+ *
+ * <p>A matcher is built once, at which point it is verified to have a handler for every declared type of the schema.
+ * Matching a union then selects the handler directly from the union's tag, without any type checks, and without
+ * allocating (other than boxing a primitive member that was registered with {@link Builder#on(Class, Function)}
+ * rather than one of the primitive handlers such as {@link Builder#onInt(IntFunction)}, of which there is one for
+ * each primitive type).</p>
+ *
+ * <pre>
+ * UnionMatcher&lt;String&gt; describe = UnionMatcher.&lt;String&gt;builder(union.getSchema())
+ *     .on(String.class, s -&gt; "String " + s)
+ *     .onInt(i -&gt; "int " + i)
+ *     .build();
+ * String description = union.match(describe);
+ * </pre>
+ *
+ * @param <R> The type of result produced by the handlers.
+ * @see Union#match(UnionMatcher)
+ */
+public final class UnionMatcher<R> {
+    private final UnionSchema schema;
+    private final Case<R>[] cases;
+
+    private UnionMatcher(UnionSchema schema, Case<R>[] cases) {
+        this.schema = schema;
+        this.cases = cases;
+    }
+
+    /**
+     * Creates a builder for a matcher over unions of the given schema.
+     *
+     * @param schema The schema of the unions to be matched.
+     * @return A new builder.
+     * @param <R> The type of result produced by the handlers.
+     */
+    public static <R> Builder<R> builder(UnionSchema schema) {
+        return new Builder<>(Objects.requireNonNull(schema, "schema"));
+    }
+
+    /**
+     * Applies the handler for the current type of the given union to its value.
+     *
+     * @param union The union to match, which must be of this matcher's schema.
+     * @return The result of the handler.
+     * @throws IllegalArgumentException If the union is not of this matcher's schema.
+     * @throws IllegalStateException If the union has no value.
+     */
+    public R apply(Union union) {
+        int tag = checkedTag(union.getSchema(), union.getTag());
+        return union.isPrimitive() ? cases[tag].applyBits(union.bits()) : cases[tag].apply(union.rawValue());
+    }
+
+    /**
+     * Applies the handler for the type of the given immutable union to its value.
+     *
+     * @param union The union to match, which must be of this matcher's schema.
+     * @return The result of the handler.
+     * @throws IllegalArgumentException If the union is not of this matcher's schema.
+     * @throws IllegalStateException If the union has no value.
+     */
+    public R apply(ImmutableUnion union) {
+        int tag = checkedTag(union.getSchema(), union.getTag());
+        return cases[tag].apply(union.getValue());
+    }
+
+    public UnionSchema getSchema() {
+        return schema;
+    }
+
+    private int checkedTag(UnionSchema unionSchema, int tag) {
+        if (unionSchema != schema) {
+            throw new IllegalArgumentException(
+                "Union of " + unionSchema + " cannot be matched by a matcher of " + schema);
+        }
+        if (tag < 0) {
+            throw new IllegalStateException("Union has no value to match");
+        }
+        return tag;
+    }
+
+    /**
+     * A builder of {@link UnionMatcher}s, which requires a handler to be registered for every declared type of the
+     * schema before a matcher can be built.
+     *
+     * @param <R> The type of result produced by the handlers.
+     */
+    public static final class Builder<R> {
+        private final UnionSchema schema;
+        private final Case<R>[] cases;
+
+        private Builder(UnionSchema schema) {
+            this.schema = schema;
+            this.cases = newCases(schema.size());
+        }
+
+        /**
+         * Registers the handler for the declared type that is exactly the given class. Values of a member declared
+         * with a primitive type are boxed before being passed to the handler.
+         *
+         * @param type The declared type, such as {@code String.class} or {@code int.class}.
+         * @param handler The handler for values of the declared type.
+         * @return This builder.
+         * @param <T> The value type expected by the handler.
+         * @throws IllegalArgumentException If the type is not declared by the schema.
+         * @throws IllegalStateException If a handler has already been registered for the type.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Builder<R> on(Class<T> type, Function<? super T, ? extends R> handler) {
+            return onType(type, (Function<Object, ? extends R>) handler);
+        }
+
+        /**
+         * Registers the handler for the given declared type, such as a {@link ParameterizedTypeImpl}.
+         *
+         * @param type The declared type.
+         * @param handler The handler for values of the declared type.
+         * @return This builder.
+         * @param <T> The value type expected by the handler.
+         * @throws IllegalArgumentException If the type is not declared by the schema.
+         * @throws IllegalStateException If a handler has already been registered for the type.
+         */
+        public <T> Builder<R> onType(Type type, Function<T, ? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            int index = indexOf(type);
+            Class<?> primitive = schema.primitiveType(index);
+            return register(index, new ObjectCase<>(handler, primitive));
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code int}, which receives values without boxing.
+         *
+         * @param handler The handler for int values.
+         * @return This builder.
+         */
+        public Builder<R> onInt(IntFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(int.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Integer) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply((int) bits);
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code long}, which receives values without boxing.
+         *
+         * @param handler The handler for long values.
+         * @return This builder.
+         */
+        public Builder<R> onLong(LongFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(long.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Long) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply(bits);
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code double}, which receives values without boxing.
+         *
+         * @param handler The handler for double values.
+         * @return This builder.
+         */
+        public Builder<R> onDouble(DoubleFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(double.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Double) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply(Double.longBitsToDouble(bits));
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code float}, which receives values without boxing.
+         *
+         * @param handler The handler for float values.
+         * @return This builder.
+         */
+        public Builder<R> onFloat(FloatFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(float.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Float) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply(Float.intBitsToFloat((int) bits));
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code boolean}, which receives values without boxing.
+         *
+         * @param handler The handler for boolean values.
+         * @return This builder.
+         */
+        public Builder<R> onBoolean(BooleanFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(boolean.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Boolean) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply(bits != 0);
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code char}, which receives values without boxing.
+         *
+         * @param handler The handler for char values.
+         * @return This builder.
+         */
+        public Builder<R> onChar(CharFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(char.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Character) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply((char) bits);
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code byte}, which receives values without boxing.
+         *
+         * @param handler The handler for byte values.
+         * @return This builder.
+         */
+        public Builder<R> onByte(ByteFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(byte.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Byte) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply((byte) bits);
+                }
+            });
+        }
+
+        /**
+         * Registers the handler for the member declared as {@code short}, which receives values without boxing.
+         *
+         * @param handler The handler for short values.
+         * @return This builder.
+         */
+        public Builder<R> onShort(ShortFunction<? extends R> handler) {
+            Objects.requireNonNull(handler, "handler");
+            return register(indexOf(short.class), new Case<R>() {
+                @Override
+                public R apply(Object value) {
+                    return handler.apply((Short) value);
+                }
+
+                @Override
+                public R applyBits(long bits) {
+                    return handler.apply((short) bits);
+                }
+            });
+        }
+
+        /**
+         * Builds the matcher.
+         *
+         * @return A matcher that may be reused for any number of unions of the schema.
+         * @throws IllegalStateException If no handler has been registered for one or more of the declared types.
+         */
+        public UnionMatcher<R> build() {
+            List<Type> missing = new ArrayList<>();
+            for (int i = 0; i < cases.length; i++) {
+                if (cases[i] == null) {
+                    missing.add(schema.getType(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("No handler registered for declared types: " + missing);
+            }
+            return new UnionMatcher<>(schema, cases.clone());
+        }
+
+        private int indexOf(Type type) {
+            List<Type> types = schema.getTypes();
+            int index = types.indexOf(type);
+            if (index < 0) {
+                throw new IllegalArgumentException("Type is not declared by " + schema + ": " + type.getTypeName());
+            }
+            return index;
+        }
+
+        private Builder<R> register(int index, Case<R> c) {
+            if (cases[index] != null) {
+                throw new IllegalStateException("Handler already registered for declared type: "
+                    + schema.getType(index).getTypeName());
+            }
+            cases[index] = c;
+            return this;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> Case<R>[] newCases(int size) {
+        return (Case<R>[]) new Case<?>[size];
+    }
+
+    /**
+     * A function of a float value, for {@link Builder#onFloat(FloatFunction)}.
+     *
+     * @param <R> The type of result of the function.
+     */
+    @FunctionalInterface
+    public interface FloatFunction<R> {
+        /**
+         * Applies this function to the given value.
+         *
+         * @param value The value.
+         * @return The result of the function.
+         */
+        R apply(float value);
+    }
+
+    /**
+     * A function of a boolean value, for {@link Builder#onBoolean(BooleanFunction)}.
+     *
+     * @param <R> The type of result of the function.
+     */
+    @FunctionalInterface
+    public interface BooleanFunction<R> {
+        /**
+         * Applies this function to the given value.
+         *
+         * @param value The value.
+         * @return The result of the function.
+         */
+        R apply(boolean value);
+    }
+
+    /**
+     * A function of a char value, for {@link Builder#onChar(CharFunction)}.
+     *
+     * @param <R> The type of result of the function.
+     */
+    @FunctionalInterface
+    public interface CharFunction<R> {
+        /**
+         * Applies this function to the given value.
+         *
+         * @param value The value.
+         * @return The result of the function.
+         */
+        R apply(char value);
+    }
+
+    /**
+     * A function of a byte value, for {@link Builder#onByte(ByteFunction)}.
+     *
+     * @param <R> The type of result of the function.
+     */
+    @FunctionalInterface
+    public interface ByteFunction<R> {
+        /**
+         * Applies this function to the given value.
+         *
+         * @param value The value.
+         * @return The result of the function.
+         */
+        R apply(byte value);
+    }
+
+    /**
+     * A function of a short value, for {@link Builder#onShort(ShortFunction)}.
+     *
+     * @param <R> The type of result of the function.
+     */
+    @FunctionalInterface
+    public interface ShortFunction<R> {
+        /**
+         * Applies this function to the given value.
+         *
+         * @param value The value.
+         * @return The result of the function.
+         */
+        R apply(short value);
+    }
+
+    /**
+     * The handler for a single declared type, which receives either the value itself or, for members stored as
+     * primitives by {@link Union}, the raw bits of the value.
+     */
+    private interface Case<R> {
+        R apply(Object value);
+
+        R applyBits(long bits);
+    }
+
+    private static final class ObjectCase<R> implements Case<R> {
+        private final Function<Object, ? extends R> handler;
+        private final Class<?> primitive;
+
+        @SuppressWarnings("unchecked")
+        ObjectCase(Function<?, ? extends R> handler, Class<?> primitive) {
+            this.handler = (Function<Object, ? extends R>) handler;
+            this.primitive = primitive;
+        }
+
+        @Override
+        public R apply(Object value) {
+            return handler.apply(value);
+        }
+
+        @Override
+        public R applyBits(long bits) {
+            return handler.apply(Primitives.box(primitive, bits));
+        }
+    }
+}
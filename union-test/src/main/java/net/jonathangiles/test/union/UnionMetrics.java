@@ -0,0 +1,214 @@
+package net.jonathangiles.test.union;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of how the values of unions of a schema are resolved to its declared types, for diagnosing slow
+ * {@link Union#setValue(Object)} calls: how often each declared type is hit, how many values are rejected, how many
+ * elements of generic values are scanned, and how long values that need checking themselves take to resolve.
+ *
+ * <p>Metrics are disabled by default, and are enabled for the whole JVM by starting it with
+ * {@code -Dnet.jonathangiles.union.metrics=true}. Whether they are enabled is read once into a static final field, so
+ * when they are disabled the instrumentation is removed by the JIT compiler and costs nothing. When they are enabled,
+ * each schema has its own metrics, returned by {@link UnionSchema#getMetrics()}, which are also registered as a
+ * {@link UnionMetricsMXBean} with the platform MBean server. Resolving a value that needs checking itself, or that no
+ * declared type accepts, also emits a JFR {@code net.jonathangiles.test.union.Resolve} event, which a recording only
+ * keeps if it enables the event.</p>
+ *
+ * <p>The counters do not outlive their schema: once a schema is garbage collected, such as when the class loader of its
+ * declared types is unloaded, its MBean is unregistered, and interning the same declared types again starts new
+ * counters.</p>
+ *
+ * <p>Values of plain classes that are resolved in bulk by {@link Union#setAll(Union[], Object[])} and
+ * {@link UnionSchema#classify(Object[], byte[])} count as hits, but spend no time in validation.</p>
+ */
+public final class UnionMetrics implements UnionMetricsMXBean {
+    /**
+     * The system property that enables metrics when set to {@code true}.
+     */
+    public static final String ENABLED_PROPERTY = "net.jonathangiles.union.metrics";
+
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    // the schema that registered each name, so that a name is only taken over from a schema that has been unloaded
+    private static final Map<ObjectName, WeakReference<UnionSchema>> OWNERS = new HashMap<>();
+
+    // created on first use, so that no cleaner thread is started unless metrics are enabled
+    private static final class Cleanup {
+        static final Cleaner CLEANER = Cleaner.create();
+    }
+
+    private final String schemaName;
+
+    // set once the metrics are registered
+    private volatile ObjectName objectName;
+    private final LongAdder[] hits;
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder elementsScanned = new LongAdder();
+    private final LongAdder validationNanos = new LongAdder();
+
+    private UnionMetrics(UnionSchema schema) {
+        this.schemaName = schema.toString();
+        this.hits = new LongAdder[schema.size()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns true if metrics are enabled in this JVM.
+     *
+     * @return True if metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Creates the metrics of a new schema and registers them with the platform MBean server.
+     */
+    static UnionMetrics register(UnionSchema schema) {
+        UnionMetrics metrics = new UnionMetrics(schema);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            synchronized (OWNERS) {
+                for (int instance = 1; metrics.objectName == null; instance++) {
+                    ObjectName name = objectName(metrics.schemaName, instance);
+                    WeakReference<UnionSchema> owner = OWNERS.get(name);
+                    if (server.isRegistered(name)) {
+                        if (owner == null || owner.get() != null) {
+                            // registered by someone else, or by a live schema that renders the same, such as one over
+                            // same-named classes of another class loader
+                            continue;
+                        }
+                        // the metrics of an earlier, since unloaded, schema with the same declared types
+                        server.unregisterMBean(name);
+                    }
+                    server.registerMBean(metrics, name);
+                    WeakReference<UnionSchema> ref = new WeakReference<>(schema);
+                    OWNERS.put(name, ref);
+                    metrics.objectName = name;
+                    // the action must not capture the schema, or it would never be collected
+                    Cleanup.CLEANER.register(schema, () -> unregister(name, ref));
+                }
+            }
+        } catch (JMException e) {
+            // the metrics are still available from the schema, even if they cannot be managed
+        }
+        return metrics;
+    }
+
+    // unregisters the metrics of a collected schema, unless its name has already been taken over by another schema
+    private static void unregister(ObjectName name, WeakReference<UnionSchema> owner) {
+        synchronized (OWNERS) {
+            if (OWNERS.get(name) != owner) {
+                return;
+            }
+            OWNERS.remove(name);
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (JMException e) {
+                // already unregistered by someone else
+            }
+        }
+    }
+
+    private static ObjectName objectName(String schemaName, int instance) throws JMException {
+        String name = "net.jonathangiles.test.union:type=UnionMetrics,schema=" + ObjectName.quote(schemaName);
+        return new ObjectName(instance == 1 ? name : name + ",instance=" + instance);
+    }
+
+    /**
+     * Returns the name the metrics are registered under, or null if they could not be registered.
+     */
+    ObjectName objectName() {
+        return objectName;
+    }
+
+    /**
+     * Records a value of a plain class that was resolved without checking the value itself.
+     */
+    void recordHit(int tag) {
+        if (tag < 0) {
+            mismatches.increment();
+        } else {
+            hits[tag].increment();
+        }
+    }
+
+    /**
+     * Records a value that was checked itself, scanning the given number of generic elements.
+     */
+    void recordValidation(int tag, long scanned, long nanos) {
+        recordHit(tag);
+        if (scanned > 0) {
+            elementsScanned.add(scanned);
+        }
+        validationNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of values resolved to the declared type at the given index.
+     *
+     * @param tag The index of the declared type.
+     * @return The number of values resolved to it.
+     */
+    public long getHits(int tag) {
+        return hits[tag].sum();
+    }
+
+    @Override
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    @Override
+    public long[] getHits() {
+        long[] result = new long[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            result[i] = hits[i].sum();
+        }
+        return result;
+    }
+
+    @Override
+    public long getMismatches() {
+        return mismatches.sum();
+    }
+
+    @Override
+    public long getElementsScanned() {
+        return elementsScanned.sum();
+    }
+
+    @Override
+    public long getValidationNanos() {
+        return validationNanos.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder hit : hits) {
+            hit.reset();
+        }
+        mismatches.reset();
+        elementsScanned.reset();
+        validationNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "UnionMetrics[" + schemaName + ", hits=" + Arrays.toString(getHits()) + ", mismatches="
+            + getMismatches() + ", elementsScanned=" + getElementsScanned() + ", validationNanos="
+            + getValidationNanos() + "]";
+    }
+}
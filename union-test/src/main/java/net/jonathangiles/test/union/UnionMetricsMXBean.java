@@ -0,0 +1,48 @@
+package net.jonathangiles.test.union;
+
+/**
+ * The management interface of the {@link UnionMetrics} of a schema, registered with the platform MBean server under
+ * {@code net.jonathangiles.test.union:type=UnionMetrics,schema=<schema>}.
+ */
+public interface UnionMetricsMXBean {
+    /**
+     * Returns the description of the schema, as given by its {@code toString()}.
+     *
+     * @return The description of the schema.
+     */
+    String getSchemaName();
+
+    /**
+     * Returns the number of values resolved to each declared type, indexed by tag.
+     *
+     * @return The number of values resolved to each declared type.
+     */
+    long[] getHits();
+
+    /**
+     * Returns the number of values that no declared type accepted, which {@link Union#setValue(Object)} rejects.
+     *
+     * @return The number of rejected values.
+     */
+    long getMismatches();
+
+    /**
+     * Returns the number of elements, keys and values of generic values that were checked against a type argument.
+     *
+     * @return The number of generic elements scanned.
+     */
+    long getElementsScanned();
+
+    /**
+     * Returns the total time spent resolving values that needed to be checked themselves, such as generic values, in
+     * nanoseconds.
+     *
+     * @return The time spent in validation, in nanoseconds.
+     */
+    long getValidationNanos();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,33 @@
+package net.jonathangiles.test.union;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event for resolving a value that had to be checked itself, such as a generic value, or that no declared type
+ * accepted. It is only emitted when {@link UnionMetrics} are enabled, and is recorded by JFR when
+ * {@code net.jonathangiles.test.union.Resolve} is enabled in the recording's settings, above its threshold.
+ */
+@Name("net.jonathangiles.test.union.Resolve")
+@Label("Union Resolve")
+@Category("Unions")
+@Description("Resolution of a value against the declared types of a union schema")
+@StackTrace(false)
+final class UnionResolveEvent extends Event {
+    @Label("Schema")
+    String schema;
+
+    @Label("Value Class")
+    Class<?> valueClass;
+
+    @Label("Tag")
+    @Description("The index of the declared type the value resolved to, or -1 if none accepted it")
+    int tag;
+
+    @Label("Elements Scanned")
+    long elementsScanned;
+}
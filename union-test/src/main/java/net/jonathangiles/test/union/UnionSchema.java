@@ -0,0 +1,508 @@
+package net.jonathangiles.test.union;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * The immutable description of a {@link Union}: the types it has been declared to accept, in declaration order, along
+ * with the dispatch data precomputed from them.
+ *
+ * <p>Schemas are interned by their list of declared types, so every union declared over the same types shares a single
+ * schema instance for as long as that schema is in use, and schemas may be compared by identity. The interned schemas
+ * are only weakly held, by the erasure of their first declared type, so interning never keeps a schema, or the classes
+ * it declares and has resolved values of, alive after its unions are gone.</p>
+ *
+ * @see Union
+ */
+public final class UnionSchema {
+    /**
+     * The most types a schema may declare, so that every tag, and every tag plus one, fits in a byte.
+     */
+    public static final int MAX_TYPES = Byte.MAX_VALUE;
+
+    // the interned schemas, held by the erasure of their first declared type so they are unloaded with it
+    private static final ClassValue<Interner> INTERNERS = new ClassValue<>() {
+        @Override
+        protected Interner computeValue(Class<?> type) {
+            return new Interner();
+        }
+    };
+
+    private final Type[] types;
+    private final List<Type> typeList;
+
+    // the rendering of typeList, and the name of each declared type, which are used every time a union is rendered
+    private final String typesString;
+    private final String[] typeNames;
+    private final ValidationMode validationMode;
+    private final boolean adaptiveDispatch;
+    private final boolean stacklessRejection;
+    private final DispatchPlan plan;
+
+    // null unless metrics are enabled
+    private final UnionMetrics metrics;
+
+    // the primitive class declared at each index, or null where the declared type is not primitive
+    private final Class<?>[] primitiveTypes;
+
+    // the index that an int/long/float/double resolves to, or -1 where that member is not declared as the primitive
+    private final int intSlot;
+    private final int longSlot;
+    private final int floatSlot;
+    private final int doubleSlot;
+
+    private UnionSchema(Type[] types, ValidationMode validationMode, boolean adaptiveDispatch,
+                        boolean stacklessRejection) {
+        this.types = types;
+        this.typeList = Collections.unmodifiableList(Arrays.asList(types));
+        this.typesString = typeList.toString();
+        this.typeNames = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            typeNames[i] = types[i].getTypeName();
+        }
+        this.validationMode = validationMode;
+        this.adaptiveDispatch = adaptiveDispatch;
+        this.stacklessRejection = stacklessRejection;
+        this.metrics = UnionMetrics.ENABLED ? UnionMetrics.register(this) : null;
+        this.plan = new DispatchPlan(types, validationMode, adaptiveDispatch, metrics);
+
+        this.primitiveTypes = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] instanceof Class<?> cls && cls.isPrimitive()) {
+                primitiveTypes[i] = cls;
+            }
+        }
+        this.intSlot = primitiveSlot(int.class);
+        this.longSlot = primitiveSlot(long.class);
+        this.floatSlot = primitiveSlot(float.class);
+        this.doubleSlot = primitiveSlot(double.class);
+    }
+
+    /**
+     * Returns the schema for the given declared types, creating it if this is the first time these types were seen.
+     * Generic values are validated with {@link ValidationMode#FULL}.
+     *
+     * @param types The types that a union of this schema accepts, in the order they should be matched.
+     * @return The shared schema for the given types.
+     * @throws IllegalArgumentException If more than {@link #MAX_TYPES} types are given.
+     */
+    public static UnionSchema of(Type... types) {
+        return of(ValidationMode.FULL, types);
+    }
+
+    /**
+     * Returns the schema for the given declared types and validation mode, creating it if this is the first time they
+     * were seen.
+     *
+     * @param validationMode How the elements of generic values are checked against the declared types.
+     * @param types The types that a union of this schema accepts, in the order they should be matched.
+     * @return The shared schema for the given types and validation mode.
+     * @throws IllegalArgumentException If more than {@link #MAX_TYPES} types are given.
+     */
+    public static UnionSchema of(ValidationMode validationMode, Type... types) {
+        Objects.requireNonNull(validationMode, "validationMode");
+        if (types.length > MAX_TYPES) {
+            throw new IllegalArgumentException("Unions may declare at most " + MAX_TYPES + " types, but "
+                + types.length + " were given");
+        }
+        Type[] copy = types.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] == null) {
+                throw new NullPointerException("Union types must not be null");
+            }
+            if (copy[i] instanceof ParameterizedTypeImpl type) {
+                copy[i] = Types.canonicalize(type);
+            }
+        }
+        return intern(copy, validationMode, false, false);
+    }
+
+    private static UnionSchema intern(Type[] types, ValidationMode validationMode, boolean adaptiveDispatch,
+                                      boolean stacklessRejection) {
+        Class<?> first = types.length == 0 ? Object.class : TypeMatcher.erasure(types[0]);
+        return INTERNERS.get(first).intern(types, validationMode, adaptiveDispatch, stacklessRejection);
+    }
+
+    /**
+     * Returns the schema with the same declared types as this one, but the given validation mode.
+     *
+     * @param validationMode How the elements of generic values are checked against the declared types.
+     * @return The shared schema for this schema's types and the given validation mode.
+     */
+    public UnionSchema withValidationMode(ValidationMode validationMode) {
+        return validationMode.equals(this.validationMode)
+            ? this
+            : intern(types, validationMode, adaptiveDispatch, stacklessRejection);
+    }
+
+    /**
+     * Returns the schema with the same declared types and validation mode as this one, which adapts how it resolves
+     * values to the classes it sees most often, if {@code adaptiveDispatch} is true.
+     *
+     * <p>An adaptive schema keeps a single slot for the class of plain values (those that resolve without being checked
+     * themselves) that it sees most often, sampled from the values that miss the slot, and resolves values of that
+     * class with one comparison before any other lookup. This suits skewed workloads, where most values are of one
+     * class. Values are always resolved to the same declared types, in the same declaration order, as a schema that is
+     * not adaptive would resolve them to.</p>
+     *
+     * @param adaptiveDispatch Whether the schema should adapt to the classes of the values it resolves.
+     * @return The shared schema for this schema's types and validation mode, with the given dispatch.
+     */
+    public UnionSchema withAdaptiveDispatch(boolean adaptiveDispatch) {
+        return adaptiveDispatch == this.adaptiveDispatch
+            ? this
+            : intern(types, validationMode, adaptiveDispatch, stacklessRejection);
+    }
+
+    /**
+     * Returns true if this schema adapts how it resolves values to the classes it sees most often.
+     *
+     * @return True if this schema uses adaptive dispatch.
+     * @see #withAdaptiveDispatch(boolean)
+     */
+    public boolean isAdaptiveDispatch() {
+        return adaptiveDispatch;
+    }
+
+    /**
+     * Returns the schema with the same declared types, validation mode and dispatch as this one, whose unions reject
+     * values with an {@link InvalidTypeException} that has no stack trace, if {@code stacklessRejection} is true.
+     *
+     * <p>Filling in the stack trace is most of the cost of rejecting a value, which matters where invalid values are
+     * common, such as when validating untrusted input by catching the exception. Where rejections are expected, prefer
+     * {@link Union#trySetValue(Object)}, which does not throw at all.</p>
+     *
+     * @param stacklessRejection Whether unions of the schema should reject values without a stack trace.
+     * @return The shared schema for this schema's types, validation mode and dispatch, with the given rejection.
+     */
+    public UnionSchema withStacklessRejection(boolean stacklessRejection) {
+        return stacklessRejection == this.stacklessRejection
+            ? this
+            : intern(types, validationMode, adaptiveDispatch, stacklessRejection);
+    }
+
+    /**
+     * Returns true if unions of this schema reject values without filling in a stack trace.
+     *
+     * @return True if this schema uses stackless rejection.
+     * @see #withStacklessRejection(boolean)
+     */
+    public boolean isStacklessRejection() {
+        return stacklessRejection;
+    }
+
+    /**
+     * Returns how the elements of generic values are checked against the declared types of this schema.
+     *
+     * @return The validation mode of this schema.
+     */
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    /**
+     * Returns the metrics of how values are resolved to the declared types of this schema, or null if metrics are not
+     * enabled.
+     *
+     * @return The metrics of this schema, or null.
+     * @see UnionMetrics
+     */
+    public UnionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the declared types of this schema, in declaration order. The returned list is shared and unmodifiable.
+     *
+     * @return The declared types of this schema.
+     */
+    public List<Type> getTypes() {
+        return typeList;
+    }
+
+    /**
+     * Returns the declared type at the given index.
+     *
+     * @param index The index of the declared type, as used for a union's tag.
+     * @return The declared type at the given index.
+     */
+    public Type getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Returns the number of declared types in this schema.
+     *
+     * @return The number of declared types.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Creates a union of this schema holding the given value as the declared type at the given tag, rather than as the
+     * first declared type that accepts it, for callers that track the member of a value themselves, such as generated
+     * union classes converting back to a {@link Union}.
+     *
+     * @param tag The index of the declared type to hold the value as.
+     * @param value The value, which the declared type at {@code tag} must accept.
+     * @return A new union holding the value.
+     * @throws IndexOutOfBoundsException If the tag is not the index of a declared type.
+     * @throws InvalidTypeException If the declared type at {@code tag} does not accept the value.
+     */
+    public Union newUnion(int tag, Object value) {
+        Objects.checkIndex(tag, types.length);
+        boolean accepted = primitiveTypes[tag] != null
+            ? TypeMatcher.isPrimitiveTypeMatch(value, types[tag])
+            : TypeMatcher.isInstanceOfType(value, types[tag], validationMode);
+        if (!accepted) {
+            throw invalidType(value, -1);
+        }
+        Union union = Union.ofSchema(this);
+        union.setResolved(value, tag);
+        return union;
+    }
+
+    /**
+     * Creates a union of this schema holding a value of the member declared with a primitive type at the given tag,
+     * from the raw bits of the value, without boxing it. The bits are those of an {@code int}, {@code char},
+     * {@code short} or {@code byte} value widened to a {@code long}, a {@code long} value itself,
+     * {@link Float#floatToRawIntBits(float)} or {@link Double#doubleToRawLongBits(double)} of a floating point value,
+     * or 1 or 0 for a {@code boolean} value.
+     *
+     * @param tag The index of the declared primitive type to hold the value as.
+     * @param bits The raw bits of the value.
+     * @return A new union holding the value.
+     * @throws IndexOutOfBoundsException If the tag is not the index of a declared type.
+     * @throws IllegalArgumentException If the declared type at {@code tag} is not primitive.
+     */
+    public Union newUnionOfBits(int tag, long bits) {
+        Objects.checkIndex(tag, types.length);
+        if (primitiveTypes[tag] == null) {
+            throw new IllegalArgumentException("Declared type is not primitive: " + typeNames[tag]);
+        }
+        Union union = Union.ofSchema(this);
+        union.setResolvedBits(tag, bits);
+        return union;
+    }
+
+    /**
+     * Finds the index of the declared type that each of the given values would be set to by
+     * {@link Union#setValue(Object)}, and stores it into the same position of {@code tagsOut}, or -1 if no declared
+     * type accepts the value (including a null value).
+     *
+     * <p>The runtime class of a value is only looked up when it differs from the class of the value before it, so a
+     * run of values of the same class that resolve to a plain class member costs one lookup, and values of generic
+     * members are only checked themselves.</p>
+     *
+     * @param values The values to classify.
+     * @param tagsOut The array to store the tag of each value into, which must be at least as long as
+     * {@code values}.
+     * @return The index of the first value that no declared type accepts, or -1 if every value is accepted.
+     * @throws IllegalArgumentException If {@code tagsOut} is shorter than {@code values}.
+     */
+    public int classify(Object[] values, byte[] tagsOut) {
+        if (tagsOut.length < values.length) {
+            throw new IllegalArgumentException("Tags array of length " + tagsOut.length + " is shorter than "
+                + values.length + " values");
+        }
+        int firstRejected = -1;
+        Class<?> runClass = null;
+        int runTag = -1;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            int tag;
+            if (value == null) {
+                tag = -1;
+            } else {
+                Class<?> cls = value.getClass();
+                if (cls != runClass) {
+                    runClass = cls;
+                    runTag = plan.classify(cls);
+                }
+                if (runTag == DispatchPlan.VALUE_DEPENDENT) {
+                    tag = plan.resolve(value);
+                } else {
+                    tag = runTag;
+                    if (UnionMetrics.ENABLED && metrics != null) {
+                        metrics.recordHit(tag);
+                    }
+                }
+            }
+            tagsOut[i] = (byte) tag;
+            if (tag < 0 && firstRejected < 0) {
+                firstRejected = i;
+            }
+        }
+        return firstRejected;
+    }
+
+    /**
+     * Returns the index of the declared type that every value of the given class resolves to, -1 if no declared type
+     * accepts it, or {@link DispatchPlan#VALUE_DEPENDENT} if the answer depends on the value itself.
+     */
+    int classify(Class<?> cls) {
+        return plan.classify(cls);
+    }
+
+    /**
+     * Returns the index of the first declared type that accepts the given value, or -1 if none does, as for a null
+     * value.
+     */
+    int resolve(Object value) {
+        return value == null ? -1 : plan.resolve(value);
+    }
+
+    /**
+     * Returns the index of the first declared type that accepts the given value, checking the elements of generic
+     * values with the given mode rather than this schema's own.
+     */
+    int resolve(Object value, ValidationMode validationMode) {
+        return value == null ? -1 : plan.resolve(value, validationMode);
+    }
+
+    /**
+     * Returns the exception to throw for a value that no declared type accepts, at the given position among the
+     * values being set, or -1 if a single value was being set.
+     */
+    InvalidTypeException invalidType(Object value, int position) {
+        return new InvalidTypeException(value == null ? null : value.getClass(), position, !stacklessRejection);
+    }
+
+    /**
+     * Returns the rendering of {@link #getTypes()}, as given by its {@code toString()}.
+     */
+    String typesString() {
+        return typesString;
+    }
+
+    /**
+     * Returns the {@link Type#getTypeName() name} of the declared type at the given index.
+     */
+    String typeName(int index) {
+        return typeNames[index];
+    }
+
+    /**
+     * Returns the primitive class declared at the given index, or null if the declared type is not primitive.
+     */
+    Class<?> primitiveType(int index) {
+        return primitiveTypes[index];
+    }
+
+    int intSlot() {
+        return intSlot;
+    }
+
+    int longSlot() {
+        return longSlot;
+    }
+
+    int floatSlot() {
+        return floatSlot;
+    }
+
+    int doubleSlot() {
+        return doubleSlot;
+    }
+
+    private int primitiveSlot(Class<?> primitive) {
+        int index = plan.resolveClass(Primitives.wrap(primitive));
+        return index >= 0 && primitiveTypes[index] == primitive ? index : -1;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner options = new StringJoiner(", ", "(", ")").setEmptyValue("");
+        if (validationMode != ValidationMode.FULL) {
+            options.add(validationMode.toString());
+        }
+        if (adaptiveDispatch) {
+            options.add("adaptive");
+        }
+        if (stacklessRejection) {
+            options.add("stackless");
+        }
+        return "UnionSchema" + typesString + options;
+    }
+
+    private static int hash(Type[] types, ValidationMode validationMode, boolean adaptiveDispatch,
+                            boolean stacklessRejection) {
+        return Objects.hash(Arrays.hashCode(types), validationMode, adaptiveDispatch, stacklessRejection);
+    }
+
+    private boolean matches(Type[] types, ValidationMode validationMode, boolean adaptiveDispatch,
+                            boolean stacklessRejection) {
+        return adaptiveDispatch == this.adaptiveDispatch && stacklessRejection == this.stacklessRejection
+            && validationMode.equals(this.validationMode) && Arrays.equals(types, this.types);
+    }
+
+    /**
+     * The interned schemas whose first declared type has a single erasure. There are rarely more than a handful, so
+     * they are kept in a copy-on-write array that is searched without locking, as {@link Types} does for parameterized
+     * types.
+     */
+    private static final class Interner {
+        private volatile Entry[] entries = new Entry[0];
+
+        UnionSchema intern(Type[] types, ValidationMode validationMode, boolean adaptiveDispatch,
+                           boolean stacklessRejection) {
+            int hash = hash(types, validationMode, adaptiveDispatch, stacklessRejection);
+            UnionSchema found = find(entries, hash, types, validationMode, adaptiveDispatch, stacklessRejection);
+            if (found != null) {
+                return found;
+            }
+            synchronized (this) {
+                Entry[] current = entries;
+                found = find(current, hash, types, validationMode, adaptiveDispatch, stacklessRejection);
+                if (found != null) {
+                    return found;
+                }
+                UnionSchema created = new UnionSchema(types, validationMode, adaptiveDispatch, stacklessRejection);
+                entries = append(current, new Entry(created, hash));
+                return created;
+            }
+        }
+
+        private static UnionSchema find(Entry[] entries, int hash, Type[] types, ValidationMode validationMode,
+                                        boolean adaptiveDispatch, boolean stacklessRejection) {
+            for (Entry entry : entries) {
+                if (entry.hash == hash) {
+                    UnionSchema schema = entry.get();
+                    if (schema != null
+                            && schema.matches(types, validationMode, adaptiveDispatch, stacklessRejection)) {
+                        return schema;
+                    }
+                }
+            }
+            return null;
+        }
+
+        // copies the entries that are still alive, followed by the new entry
+        private static Entry[] append(Entry[] entries, Entry entry) {
+            Entry[] result = new Entry[entries.length + 1];
+            int size = 0;
+            for (Entry e : entries) {
+                if (e.get() != null) {
+                    result[size++] = e;
+                }
+            }
+            result[size++] = entry;
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        }
+    }
+
+    private static final class Entry extends WeakReference<UnionSchema> {
+        final int hash;
+
+        Entry(UnionSchema schema, int hash) {
+            super(schema);
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package net.jonathangiles.test.union;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Utilities for processing large collections of unions of a single schema in parallel, one member type at a time.
+ *
+ * <p>{@link #partition(UnionSchema, List, ForkJoinPool)} groups the unions by tag across the threads of a fork-join
+ * pool, in two passes over fixed-size chunks of the collection: the first counts the tags in each chunk, and the
+ * second copies each union to its place in the group of its tag, so no group is resized or merged and the unions in
+ * each group keep their order. The groups can then be processed with a parallel stream or spliterator each, and the
+ * groups of {@code int}, {@code long} and {@code double} members as primitive streams that read the values without
+ * boxing them:</p>
+ *
+ * <pre>
+ * UnionStreams.Partition partition = UnionStreams.partition(schema, unions);
+ * long total = partition.ints(intTag).asLongStream().sum();
+ * double mean = partition.doubles(doubleTag).average().orElse(0);
+ * long words = partition.stream(stringTag).flatMap(u -&gt; tokenize(u.getValue())).count();
+ * </pre>
+ *
+ * <p>Only the grouping uses the pool given to {@link #partition(UnionSchema, List, ForkJoinPool)}. The streams of a
+ * partition are plain parallel streams, which run in the common pool unless their terminal operation is invoked from a
+ * task of another pool, so to keep the processing in the same pool as the grouping, submit it to that pool:</p>
+ *
+ * <pre>
+ * long total = pool.submit(() -&gt; partition.ints(intTag).asLongStream().sum()).join();
+ * </pre>
+ */
+public final class UnionStreams {
+    // the number of unions each fork-join task processes, which is small enough to spread a large collection across
+    // all threads, and large enough that the tasks cost little next to the work they do
+    private static final int CHUNK_SIZE = 4096;
+
+    private UnionStreams() {
+    }
+
+    /**
+     * Groups the given unions by tag, using the common fork-join pool.
+     *
+     * @param schema The schema of the unions.
+     * @param unions The unions to group.
+     * @return The unions grouped by tag.
+     * @throws IllegalArgumentException If a union is not of the given schema.
+     * @see #partition(UnionSchema, List, ForkJoinPool)
+     */
+    public static Partition partition(UnionSchema schema, List<? extends Union> unions) {
+        return partition(schema, unions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Groups the given unions by tag, using the given fork-join pool. Collections of no more than a few thousand unions
+     * are grouped on the calling thread. The pool is only used for the grouping, and not by the streams of the
+     * partition.
+     *
+     * @param schema The schema of the unions.
+     * @param unions The unions to group, which must not be modified while they are grouped.
+     * @param pool The pool to group the unions in.
+     * @return The unions grouped by tag.
+     * @throws IllegalArgumentException If a union is not of the given schema.
+     */
+    public static Partition partition(UnionSchema schema, List<? extends Union> unions, ForkJoinPool pool) {
+        Objects.requireNonNull(schema, "schema");
+        Objects.requireNonNull(pool, "pool");
+        Union[] array = unions.toArray(new Union[0]);
+        int groups = schema.size() + 1;
+        int chunks = (array.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // the number of unions of each tag in each chunk, with empty unions counted in the first group
+        int[][] counts = new int[chunks][groups];
+        forEachChunk(pool, chunks, chunk -> {
+            int[] chunkCounts = counts[chunk];
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, array.length); i < end; i++) {
+                Union union = array[i];
+                if (union.getSchema() != schema) {
+                    throw new IllegalArgumentException("Union at index " + i + " is of " + union.getSchema()
+                        + " rather than " + schema);
+                }
+                chunkCounts[union.getTag() + 1]++;
+            }
+        });
+
+        // turn the counts into the index in each group that each chunk starts writing at
+        int[] totals = new int[groups];
+        for (int[] chunkCounts : counts) {
+            for (int group = 0; group < groups; group++) {
+                int count = chunkCounts[group];
+                chunkCounts[group] = totals[group];
+                totals[group] += count;
+            }
+        }
+        Union[][] byTag = new Union[groups][];
+        for (int group = 0; group < groups; group++) {
+            byTag[group] = new Union[totals[group]];
+        }
+
+        forEachChunk(pool, chunks, chunk -> {
+            int[] next = counts[chunk];
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, array.length); i < end; i++) {
+                Union union = array[i];
+                int group = union.getTag() + 1;
+                byTag[group][next[group]++] = union;
+            }
+        });
+        return new Partition(schema, byTag);
+    }
+
+    private static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer action) {
+        if (chunks <= 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                action.accept(chunk);
+            }
+        } else {
+            pool.invoke(new ChunkAction(0, chunks, action));
+        }
+    }
+
+    /**
+     * Unions grouped by tag, in the order they were in the partitioned collection. Partitions are immutable, although
+     * the unions themselves are not copied.
+     *
+     * <p>The parallel streams of a partition run in the fork-join pool their terminal operation is invoked from, which
+     * is the common pool unless it is invoked from a task of another pool, rather than in the pool the unions were
+     * grouped in.</p>
+     */
+    public static final class Partition {
+        private final UnionSchema schema;
+        private final Union[][] byTag;
+
+        private Partition(UnionSchema schema, Union[][] byTag) {
+            this.schema = schema;
+            this.byTag = byTag;
+        }
+
+        public UnionSchema getSchema() {
+            return schema;
+        }
+
+        /**
+         * Returns the number of unions with the given tag.
+         *
+         * @param tag The index of a declared type of the schema, or -1 for empty unions.
+         * @return The number of unions with the tag.
+         */
+        public int count(int tag) {
+            return group(tag).length;
+        }
+
+        /**
+         * Returns the unions with the given tag, as an unmodifiable list.
+         *
+         * @param tag The index of a declared type of the schema, or -1 for empty unions.
+         * @return The unions with the tag.
+         */
+        public List<Union> get(int tag) {
+            return Collections.unmodifiableList(Arrays.asList(group(tag)));
+        }
+
+        /**
+         * Returns a spliterator over the unions with the given tag, which splits evenly for parallel processing.
+         *
+         * @param tag The index of a declared type of the schema, or -1 for empty unions.
+         * @return A spliterator over the unions with the tag.
+         */
+        public Spliterator<Union> spliterator(int tag) {
+            return Arrays.spliterator(group(tag));
+        }
+
+        /**
+         * Returns a parallel stream of the unions with the given tag.
+         *
+         * @param tag The index of a declared type of the schema, or -1 for empty unions.
+         * @return A parallel stream of the unions with the tag.
+         */
+        public Stream<Union> stream(int tag) {
+            return Arrays.stream(group(tag)).parallel();
+        }
+
+        /**
+         * Returns a parallel stream of the values of the unions with the given tag, as read by {@link Union#getInt()}.
+         *
+         * @param tag The index of a declared type of the schema.
+         * @return A parallel stream of the values.
+         */
+        public IntStream ints(int tag) {
+            return Arrays.stream(group(tag)).parallel().mapToInt(Union::getInt);
+        }
+
+        /**
+         * Returns a parallel stream of the values of the unions with the given tag, as read by {@link Union#getLong()}.
+         *
+         * @param tag The index of a declared type of the schema.
+         * @return A parallel stream of the values.
+         */
+        public LongStream longs(int tag) {
+            return Arrays.stream(group(tag)).parallel().mapToLong(Union::getLong);
+        }
+
+        /**
+         * Returns a parallel stream of the values of the unions with the given tag, as read by
+         * {@link Union#getDouble()}.
+         *
+         * @param tag The index of a declared type of the schema.
+         * @return A parallel stream of the values.
+         */
+        public DoubleStream doubles(int tag) {
+            return Arrays.stream(group(tag)).parallel().mapToDouble(Union::getDouble);
+        }
+
+        private Union[] group(int tag) {
+            return byTag[Objects.checkIndex(tag + 1, byTag.length)];
+        }
+    }
+
+    /**
+     * Runs an action for each chunk in a range, splitting the range in half until it is a single chunk.
+     */
+    private static final class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        // tasks are never serialized, and the action is a lambda over the partition being built
+        private final transient IntConsumer action;
+
+        ChunkAction(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, mid, action), new ChunkAction(mid, to, action));
+        }
+    }
+}
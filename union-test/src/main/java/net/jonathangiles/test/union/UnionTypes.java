@@ -0,0 +1,34 @@
+package net.jonathangiles.test.union;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation is used to specify the types that are allowed in a {@link Union} type. It allows for better tooling
+ * support to ensure users are properly consuming the types in a {@link Union} type.
+ *
+ * <p>When the {@code union-processor} annotation processor is on the compiler's processor path, a specialized,
+ * reflection-free union class is generated for each annotated method or field, in the same package as the type that
+ * declares it. The generated class is named after the declaring type and the annotated member (for example,
+ * {@code ModelType.getProp1()} generates {@code ModelTypeProp1Union}), unless a base {@link #name()} is given. A sealed
+ * interface with one record per member is generated alongside it (such as {@code ModelTypeProp1Variant}), for use
+ * with {@code switch} pattern matching.</p>
+ *
+ * @see Union
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.FIELD})
+public @interface UnionTypes {
+    Class<?>[] value();
+
+    /**
+     * The base name of the types generated for the annotated member, or an empty string to derive it from the
+     * declaring type and the member. The union class is named {@code <name>Union} and the sealed interface
+     * {@code <name>Variant}, so {@code name = "Status"} generates {@code StatusUnion} and {@code StatusVariant}.
+     */
+    String name() default "";
+}
@@ -0,0 +1,92 @@
+package net.jonathangiles.test.union;
+
+import java.util.Objects;
+
+/**
+ * Controls how thoroughly the elements of a generic value, such as a {@code List<String>}, are checked against the type
+ * arguments of a declared {@link java.lang.reflect.ParameterizedType}. The raw type of the value is always checked.
+ *
+ * <p>The mode is part of a {@link UnionSchema}, and allows safety to be traded for throughput on a per-field basis:</p>
+ * <ul>
+ *     <li>{@link #FULL} checks every element, and is the default.</li>
+ *     <li>{@link #sampled(int)} checks at most a fixed number of elements: randomly chosen ones of arrays and
+ *     random-access lists, and the first ones of other collections and maps.</li>
+ *     <li>{@link #HEAD} checks only the first non-null element.</li>
+ *     <li>{@link #TRUSTED} checks no elements, relying on the caller (typically a typed setter) to only ever set
+ *     values of the right type. Note that this means the first declared member with a matching raw type is chosen,
+ *     so members that differ only in their type arguments can no longer be told apart.</li>
+ * </ul>
+ *
+ * @see UnionSchema#withValidationMode(ValidationMode)
+ */
+public final class ValidationMode {
+    enum Kind {
+        FULL, SAMPLED, HEAD, TRUSTED
+    }
+
+    /**
+     * Checks every element of a generic value.
+     */
+    public static final ValidationMode FULL = new ValidationMode(Kind.FULL, 0);
+
+    /**
+     * Checks only the first non-null element of a generic value.
+     */
+    public static final ValidationMode HEAD = new ValidationMode(Kind.HEAD, 0);
+
+    /**
+     * Checks only the raw type of a generic value, and none of its elements.
+     */
+    public static final ValidationMode TRUSTED = new ValidationMode(Kind.TRUSTED, 0);
+
+    private final Kind kind;
+    private final int sampleSize;
+
+    private ValidationMode(Kind kind, int sampleSize) {
+        this.kind = kind;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Returns a mode that checks at most {@code sampleSize} elements of a generic value. Values with no more elements
+     * than that are checked in full. Larger arrays and {@link java.util.RandomAccess random-access} lists have a random
+     * sample of their elements checked, while other collections and maps, which can only be walked in order, have
+     * their first {@code sampleSize} elements checked.
+     *
+     * @param sampleSize The maximum number of elements to check.
+     * @return A sampling validation mode.
+     * @throws IllegalArgumentException If the sample size is not positive.
+     */
+    public static ValidationMode sampled(int sampleSize) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+        }
+        return new ValidationMode(Kind.SAMPLED, sampleSize);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    int sampleSize() {
+        return sampleSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ValidationMode that = (ValidationMode) o;
+        return kind == that.kind && sampleSize == that.sampleSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, sampleSize);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.SAMPLED ? "SAMPLED(" + sampleSize + ")" : kind.name();
+    }
+}
@@ -0,0 +1,448 @@
+package net.jonathangiles.test.union.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A minimal pull parser for a single JSON document, which reads one token at a time from a {@link Reader} without
+ * building a tree of the document.
+ *
+ * <p>{@link #peek()} returns the kind of the next token without consuming it, and the {@code next} and {@code begin} /
+ * {@code end} methods consume it. Calling a method for a token other than the next one throws an
+ * {@link IllegalStateException}, while malformed input throws an {@link IOException}. For example, to read the
+ * {@code "prop1"} member of an object:</p>
+ *
+ * <pre>
+ * JsonReader reader = JsonReader.of("{\"prop1\": [1, 2, 3], \"prop2\": \"Hello\"}");
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     if (reader.nextName().equals("prop1")) {
+ *         union = decoder.decode(reader);
+ *     } else {
+ *         reader.skipValue();
+ *     }
+ * }
+ * reader.endObject();
+ * </pre>
+ *
+ * @see net.jonathangiles.test.union.UnionJsonDecoder
+ */
+public final class JsonReader implements Closeable {
+    // the kinds of scope that the parser may be in, which determine what may come next
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+
+    // the number of characters read before the start of the buffer, for error messages
+    private long offset;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private JsonToken peeked;
+    private boolean peekedBoolean;
+    private final StringBuilder sb = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        this.in = Objects.requireNonNull(in, "in");
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Creates a reader of the given JSON document.
+     *
+     * @param json The JSON document.
+     * @return A new reader.
+     */
+    public static JsonReader of(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    /**
+     * Returns the kind of the next token, without consuming it.
+     *
+     * @return The kind of the next token.
+     * @throws IOException If the input cannot be read or is malformed.
+     */
+    public JsonToken peek() throws IOException {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    /**
+     * Returns true if the current array or object has another element.
+     *
+     * @return True if there is another element.
+     * @throws IOException If the input cannot be read or is malformed.
+     */
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+    }
+
+    public void beginArray() throws IOException {
+        consume(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(JsonToken.END_ARRAY);
+        stackSize--;
+    }
+
+    public void beginObject() throws IOException {
+        consume(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(JsonToken.END_OBJECT);
+        stackSize--;
+    }
+
+    public String nextName() throws IOException {
+        consume(JsonToken.NAME);
+        return readString();
+    }
+
+    public String nextString() throws IOException {
+        consume(JsonToken.STRING);
+        return readString();
+    }
+
+    /**
+     * Consumes the next token, which must be a number, and returns it exactly as it appears in the document.
+     *
+     * @return The text of the number, such as {@code -1.5e3}.
+     * @throws IOException If the input cannot be read or the number is malformed.
+     */
+    public String nextNumber() throws IOException {
+        consume(JsonToken.NUMBER);
+        return readNumber();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(JsonToken.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    public void nextNull() throws IOException {
+        consume(JsonToken.NULL);
+    }
+
+    /**
+     * Consumes the next value, including all of its elements if it is an array or object.
+     *
+     * @throws IOException If the input cannot be read or is malformed.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    depth++;
+                }
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    depth--;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    depth--;
+                }
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case NUMBER -> nextNumber();
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                case END_DOCUMENT -> throw new IllegalStateException("No value to skip at the end of the document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Returns a description of the current position in the document, for error messages.
+     *
+     * @return The current position.
+     */
+    public String getLocation() {
+        return "offset " + (offset + pos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void consume(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token + " at " + getLocation());
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private JsonToken doPeek() throws IOException {
+        int scope = stack[stackSize - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY -> {
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                pos--;
+            }
+            case NONEMPTY_ARRAY -> {
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return JsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return JsonToken.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+            }
+            case EMPTY_DOCUMENT -> stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            default -> {
+                skipWhitespace();
+                if (pos < limit || fill()) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return JsonToken.END_DOCUMENT;
+            }
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+                expectLiteral("rue");
+                peekedBoolean = true;
+                return JsonToken.BOOLEAN;
+            case 'f':
+                expectLiteral("alse");
+                peekedBoolean = false;
+                return JsonToken.BOOLEAN;
+            case 'n':
+                expectLiteral("ull");
+                return JsonToken.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return JsonToken.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+        return limit > 0;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        skipWhitespace();
+        if (pos == limit) {
+            throw syntaxError("Unexpected end of document");
+        }
+        return buffer[pos++];
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if ((pos == limit && !fill()) || buffer[pos++] != rest.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        sb.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    sb.append(buffer, start, pos - start - 1);
+                    return sb.toString();
+                } else if (c == '\\') {
+                    sb.append(buffer, start, pos - start - 1);
+                    sb.append(readEscape());
+                    start = pos;
+                } else if (c < 0x20) {
+                    throw syntaxError("Unescaped control character in string");
+                }
+            }
+            sb.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case '"', '\\', '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape sequence");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private String readNumber() throws IOException {
+        sb.setLength(0);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                break;
+            }
+            sb.append(c);
+            pos++;
+        }
+        if (!isValidNumber(sb)) {
+            throw syntaxError("Invalid number: " + sb);
+        }
+        return sb.toString();
+    }
+
+    // -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static boolean isValidNumber(CharSequence s) {
+        int i = 0;
+        int length = s.length();
+        if (i < length && s.charAt(i) == '-') {
+            i++;
+        }
+        if (i < length && s.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            i = skipDigits(s, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && s.charAt(i) == '.') {
+            int start = ++i;
+            i = skipDigits(s, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            i = skipDigits(s, i);
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static int skipDigits(CharSequence s, int i) {
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON at " + getLocation() + ": " + message);
+    }
+}
@@ -18,6 +18,13 @@ public class Main {
         // ... or we can pass in lambda expressions to consume the union for the types we care about
         union.tryConsume(v -> System.out.println("String value from lambda: " + v), String.class);
 
+        // ... or we can convert to the generated sealed interface, and have the compiler check the switch is exhaustive
+        switch (MainDoFooVariant.fromUnion(union)) {
+            case MainDoFooVariant.OfString(String s) -> System.out.println("String value from record pattern: " + s);
+            case MainDoFooVariant.OfInteger(Integer i) -> System.out.println("Integer value from record pattern: " + i);
+            case MainDoFooVariant.OfDouble(Double d) -> System.out.println("Double value from record pattern: " + d);
+        }
+
         // ... or we can just get the value to the type we expect it to be using the getValue methods
         String value = union.getValue();
         System.out.println("Value (from getValue()): " + value);
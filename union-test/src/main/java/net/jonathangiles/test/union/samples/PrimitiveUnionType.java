@@ -1,6 +1,7 @@
 package net.jonathangiles.test.union.samples;
 
 import net.jonathangiles.test.union.Union;
+import net.jonathangiles.test.union.UnionMatcher;
 import net.jonathangiles.test.union.UnionTypes;
 
 // This is an example of a Model class that uses the Union type to allow for multiple types to be stored in a single
@@ -19,14 +20,15 @@ public class PrimitiveUnionType {
     // that took an Object type, and then rely on the Union type to ensure that the value was of the correct type.
     // This would be the case (as we see in GenericModelType) where there are multiple types of the same class, such as
     // List<String>, List<Integer>, and List<Float>.
+    // Because the members are declared as primitives, the primitive setters store the value without boxing it.
     public void setProp1(int i) {
-        prop1.setValue(i);
+        prop1.setInt(i);
     }
     public void setProp1(float f) {
-        prop1.setValue(f);
+        prop1.setFloat(f);
     }
     public void setProp1(double d) {
-        prop1.setValue(d);
+        prop1.setDouble(d);
     }
 
     public static void main(String[] args) {
@@ -37,6 +39,9 @@ public class PrimitiveUnionType {
         // we can just call the getValue(Class<T> cls) method to get the value as the type we expect it to be
         System.out.println(modelType.getProp1().getValue(int.class));
 
+        // or, to avoid boxing altogether, use the primitive getter for the member
+        System.out.println(modelType.getProp1().getInt());
+
         // or we can use the tryConsume method
         modelType.getProp1().tryConsume(v -> System.out.println("Value from lambda: " + v), int.class);
 
@@ -47,5 +52,14 @@ public class PrimitiveUnionType {
             case Double d -> System.out.println("Double value from switch: " + d);
             default -> throw new IllegalArgumentException("Unknown type: " + modelType.getProp1().getType().getTypeName());
         }
+
+        // instead, we can build a matcher once, which is checked to handle every declared type, and which receives
+        // primitive values without boxing them
+        UnionMatcher<String> matcher = UnionMatcher.<String>builder(modelType.getProp1().getSchema())
+            .onInt(i -> "int value from matcher: " + i)
+            .onFloat(f -> "float value from matcher: " + f)
+            .onDouble(d -> "double value from matcher: " + d)
+            .build();
+        System.out.println(modelType.getProp1().match(matcher));
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentUnionTest {
+
+    @Test
+    void testSetValueAndSnapshot() {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, Integer.class);
+        assertNull(union.getValue());
+        assertNull(union.snapshot().getType());
+
+        union.setValue("Hello");
+        ImmutableUnion snapshot = union.snapshot();
+        assertEquals(String.class, snapshot.getType());
+        assertEquals("Hello", snapshot.getValue());
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(3.14));
+        assertSame(snapshot, union.snapshot());
+    }
+
+    @Test
+    void testGetAndSet() {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, Integer.class);
+        union.setValue("Hello");
+        ImmutableUnion previous = union.getAndSet(404);
+        assertEquals("Hello", previous.getValue());
+        assertEquals(Integer.class, union.getType());
+        assertEquals(404, (int) union.getValue());
+    }
+
+    @Test
+    void testCompareAndSet() {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, Integer.class);
+        assertTrue(union.compareAndSet(null, 500));
+        assertFalse(union.compareAndSet("OK", 200));
+        assertEquals(500, (int) union.getValue());
+
+        // values are compared with equals, so a different Integer instance of the same value matches
+        assertTrue(union.compareAndSet(Integer.valueOf(500), "OK"));
+        assertEquals(String.class, union.getType());
+        assertThrows(IllegalArgumentException.class, () -> union.compareAndSet("OK", 1L));
+    }
+
+    @Test
+    void testUpdateAndGet() {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, Integer.class);
+        union.setValue(1);
+        ImmutableUnion updated = union.updateAndGet(current -> current.with((Integer) current.getValue() + 1));
+        assertEquals(2, (int) updated.getValue());
+        assertSame(updated, union.snapshot());
+
+        ImmutableUnion foreign = ImmutableUnion.of(UnionSchema.of(Integer.class), 1);
+        assertThrows(IllegalArgumentException.class, () -> union.updateAndGet(current -> foreign));
+    }
+
+    @Test
+    void testConcurrentUpdatesAreAtomic() throws InterruptedException {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, Integer.class);
+        union.setValue(0);
+
+        int threads = 8;
+        int increments = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean inconsistent = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < increments; i++) {
+                    union.updateAndGet(current -> current.with((Integer) current.getValue() + 1));
+                    ImmutableUnion snapshot = union.snapshot();
+                    if (!(snapshot.getValue() instanceof Integer) || snapshot.getType() != Integer.class) {
+                        inconsistent.set(true);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertFalse(inconsistent.get());
+        assertEquals(threads * increments, (int) union.getValue());
+    }
+
+    @Test
+    void testFormatToMatchesToString() throws IOException {
+        ConcurrentUnion union = ConcurrentUnion.ofTypes(String.class, int.class);
+        assertEquals("ConcurrentUnion{types=[class java.lang.String, int], value=null}", union.toString());
+        union.setValue("Hello");
+        assertEquals("ConcurrentUnion{types=[class java.lang.String, int], type=java.lang.String, value=Hello}",
+            union.toString());
+        assertEquals(union.toString(), union.formatTo(new StringBuilder()).toString());
+        assertEquals(union.toString(), union.formatTo(new StringWriter()).toString());
+    }
+}
@@ -0,0 +1,182 @@
+package net.jonathangiles.test.union;
+
+import net.jonathangiles.test.union.samples.MainDoFooUnion;
+import net.jonathangiles.test.union.samples.MainDoFooVariant;
+import net.jonathangiles.test.union.samples.ModelTypeProp1Union;
+import net.jonathangiles.test.union.samples.PrimitiveUnionTypeProp1Union;
+import net.jonathangiles.test.union.samples.PrimitiveUnionTypeProp1Variant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneratedUnionTest {
+    // an earlier member that accepts every value of a later one, which is only held as the later member if the
+    // generated classes keep their tag when converting to a Union
+    @UnionTypes({Number.class, Integer.class})
+    Union numberOrInteger() {
+        return Union.ofTypes(Number.class, Integer.class);
+    }
+
+    // a member whose simple name would clash with getType() of the generated class
+    @UnionTypes({java.lang.reflect.Type.class, String.class})
+    Union typeOrString() {
+        return Union.ofTypes(java.lang.reflect.Type.class, String.class);
+    }
+
+    @UnionTypes(value = {String.class, Long.class}, name = "Status")
+    Union status() {
+        return Union.ofTypes(String.class, Long.class);
+    }
+
+    @Test
+    void testFactoriesAndAccessors() {
+        ModelTypeProp1Union union = ModelTypeProp1Union.ofString("Hello");
+        assertTrue(union.isString());
+        assertFalse(union.isInteger());
+        assertEquals("Hello", union.getString());
+        assertEquals("Hello", union.getValue());
+        assertEquals(String.class, union.getType());
+        assertEquals(ModelTypeProp1Union.TAG_STRING, union.getTag());
+        assertThrows(IllegalStateException.class, union::getInteger);
+        assertThrows(NullPointerException.class, () -> ModelTypeProp1Union.ofString(null));
+    }
+
+    @Test
+    void testPrimitiveMembers() {
+        PrimitiveUnionTypeProp1Union union = PrimitiveUnionTypeProp1Union.ofFloat(1.5f);
+        assertTrue(union.isFloat());
+        assertEquals(1.5f, union.getFloat());
+        assertEquals(1.5f, union.getValue());
+        assertEquals(float.class, union.getType());
+        assertThrows(IllegalStateException.class, union::getInt);
+
+        assertEquals(-42, PrimitiveUnionTypeProp1Union.ofInt(-42).getInt());
+        assertEquals(Math.PI, PrimitiveUnionTypeProp1Union.ofDouble(Math.PI).getDouble());
+    }
+
+    @Test
+    void testVisitor() {
+        PrimitiveUnionTypeProp1Union.Visitor<String> visitor = new PrimitiveUnionTypeProp1Union.Visitor<>() {
+            @Override
+            public String visitInt(int value) {
+                return "int " + value;
+            }
+
+            @Override
+            public String visitFloat(float value) {
+                return "float " + value;
+            }
+
+            @Override
+            public String visitDouble(double value) {
+                return "double " + value;
+            }
+        };
+
+        assertEquals("int 7", PrimitiveUnionTypeProp1Union.ofInt(7).accept(visitor));
+        assertEquals("float 1.5", PrimitiveUnionTypeProp1Union.ofFloat(1.5f).accept(visitor));
+        assertEquals("double 2.5", PrimitiveUnionTypeProp1Union.ofDouble(2.5).accept(visitor));
+    }
+
+    @Test
+    void testConversionToAndFromUnion() {
+        assertSame(UnionSchema.of(String.class, Integer.class, Double.class), MainDoFooUnion.SCHEMA);
+
+        Union union = MainDoFooUnion.ofDouble(3.14).toUnion();
+        assertSame(MainDoFooUnion.SCHEMA, union.getSchema());
+        assertEquals(Double.class, union.getType());
+        assertEquals(3.14, (Double) union.getValue());
+        assertEquals(MainDoFooUnion.ofDouble(3.14), MainDoFooUnion.fromUnion(union));
+
+        Union primitive = Union.ofTypes(int.class, float.class, double.class);
+        primitive.setInt(42);
+        PrimitiveUnionTypeProp1Union generated = PrimitiveUnionTypeProp1Union.fromUnion(primitive);
+        assertEquals(42, generated.getInt());
+        assertEquals(42, generated.toUnion().getInt());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> MainDoFooUnion.fromUnion(Union.ofTypes(String.class, Integer.class)));
+        assertThrows(IllegalStateException.class,
+            () -> MainDoFooUnion.fromUnion(Union.ofSchema(MainDoFooUnion.SCHEMA)));
+    }
+
+    @Test
+    void testEqualsHashCodeAndToString() {
+        assertEquals(ModelTypeProp1Union.ofInteger(1), ModelTypeProp1Union.ofInteger(1));
+        assertEquals(ModelTypeProp1Union.ofInteger(1).hashCode(), ModelTypeProp1Union.ofInteger(1).hashCode());
+        assertNotEquals(ModelTypeProp1Union.ofInteger(1), ModelTypeProp1Union.ofInteger(2));
+        assertNotEquals(PrimitiveUnionTypeProp1Union.ofInt(1), PrimitiveUnionTypeProp1Union.ofFloat(1));
+        assertEquals("PrimitiveUnionTypeProp1Union{type=int, value=5}",
+            PrimitiveUnionTypeProp1Union.ofInt(5).toString());
+    }
+
+    @Test
+    void testSealedVariantPatternMatching() {
+        Union union = Union.ofSchema(MainDoFooVariant.SCHEMA);
+        union.setValue(42);
+        MainDoFooVariant variant = MainDoFooVariant.fromUnion(union);
+        assertEquals(new MainDoFooVariant.OfInteger(42), variant);
+        assertEquals(1, variant.tag());
+
+        String description = switch (variant) {
+            case MainDoFooVariant.OfString(String s) -> "String " + s;
+            case MainDoFooVariant.OfInteger(Integer i) -> "Integer " + i;
+            case MainDoFooVariant.OfDouble(Double d) -> "Double " + d;
+        };
+        assertEquals("Integer 42", description);
+        assertThrows(NullPointerException.class, () -> new MainDoFooVariant.OfString(null));
+    }
+
+    @Test
+    void testSealedVariantConversions() {
+        Union union = new MainDoFooVariant.OfString("Hello").toUnion();
+        assertSame(MainDoFooVariant.SCHEMA, union.getSchema());
+        assertEquals("Hello", union.getValue());
+
+        Union primitive = new PrimitiveUnionTypeProp1Variant.OfDouble(2.5).toUnion();
+        assertEquals(2.5, primitive.getDouble());
+        assertEquals(new PrimitiveUnionTypeProp1Variant.OfDouble(2.5),
+            PrimitiveUnionTypeProp1Variant.fromUnion(primitive));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> MainDoFooVariant.fromUnion(Union.ofTypes(int.class, float.class, double.class)));
+        assertThrows(IllegalStateException.class,
+            () -> MainDoFooVariant.fromUnion(Union.ofSchema(MainDoFooVariant.SCHEMA)));
+    }
+
+    @Test
+    void testConversionsKeepTheMember() {
+        Union union = GeneratedUnionTestNumberOrIntegerUnion.ofInteger(5).toUnion();
+        assertEquals(GeneratedUnionTestNumberOrIntegerUnion.TAG_INTEGER, union.getTag());
+        assertEquals(GeneratedUnionTestNumberOrIntegerUnion.ofInteger(5),
+            GeneratedUnionTestNumberOrIntegerUnion.fromUnion(union));
+        assertEquals(0, GeneratedUnionTestNumberOrIntegerUnion.ofNumber(5).toUnion().getTag());
+
+        union = new GeneratedUnionTestNumberOrIntegerVariant.OfInteger(5).toUnion();
+        assertEquals(1, union.getTag());
+        assertEquals(new GeneratedUnionTestNumberOrIntegerVariant.OfInteger(5),
+            GeneratedUnionTestNumberOrIntegerVariant.fromUnion(union));
+
+        // the primitive members are passed on as their raw bits
+        Union primitive = new PrimitiveUnionTypeProp1Variant.OfFloat(-1.5f).toUnion();
+        assertEquals(-1.5f, primitive.getFloat());
+        assertEquals(-7, PrimitiveUnionTypeProp1Union.ofInt(-7).toUnion().getInt());
+    }
+
+    @Test
+    void testReservedMemberNamesAreQualified() {
+        GeneratedUnionTestTypeOrStringUnion union = GeneratedUnionTestTypeOrStringUnion.ofJavaLangReflectType(
+            String.class);
+        assertTrue(union.isJavaLangReflectType());
+        assertEquals(String.class, union.getJavaLangReflectType());
+        assertEquals(java.lang.reflect.Type.class, union.getType());
+        assertEquals("a", GeneratedUnionTestTypeOrStringUnion.ofString("a").getString());
+    }
+
+    @Test
+    void testNameIsTheBaseNameOfTheGeneratedTypes() {
+        StatusUnion union = StatusUnion.ofLong(200L);
+        assertEquals(200L, union.getLong());
+        assertEquals(new StatusVariant.OfLong(200L), StatusVariant.fromUnion(union.toUnion()));
+    }
+}
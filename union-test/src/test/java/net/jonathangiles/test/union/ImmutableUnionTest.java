@@ -0,0 +1,94 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImmutableUnionTest {
+    private static final UnionSchema SCHEMA = UnionSchema.of(String.class, Integer.class, Double.class);
+
+    @Test
+    void testOfAndGetValue() {
+        ImmutableUnion union = ImmutableUnion.of(SCHEMA, "Hello");
+        assertEquals(String.class, union.getType());
+        assertEquals(0, union.getTag());
+        assertEquals("Hello", union.getValue(String.class));
+        assertSame(SCHEMA.getTypes(), union.getTypes());
+        assertThrows(IllegalArgumentException.class, () -> union.getValue(Integer.class));
+    }
+
+    @Test
+    void testOfWithInvalidType() {
+        assertThrows(IllegalArgumentException.class, () -> ImmutableUnion.of(SCHEMA, 3.14f));
+    }
+
+    @Test
+    void testWithReturnsNewInstance() {
+        ImmutableUnion original = ImmutableUnion.of(SCHEMA, "Hello");
+        ImmutableUnion updated = original.with(42);
+
+        assertEquals("Hello", original.getValue());
+        assertEquals(String.class, original.getType());
+        assertEquals(42, (int) updated.getValue());
+        assertEquals(Integer.class, updated.getType());
+        assertSame(original.getSchema(), updated.getSchema());
+        assertThrows(IllegalArgumentException.class, () -> original.with(1L));
+    }
+
+    @Test
+    void testEqualsIsValueBased() {
+        assertEquals(ImmutableUnion.of(SCHEMA, 42), ImmutableUnion.of(SCHEMA, 42));
+        assertEquals(ImmutableUnion.of(SCHEMA, 42).hashCode(), ImmutableUnion.of(SCHEMA, 42).hashCode());
+        assertNotEquals(ImmutableUnion.of(SCHEMA, 42), ImmutableUnion.of(SCHEMA, 43));
+        assertNotEquals(ImmutableUnion.of(SCHEMA, 42), ImmutableUnion.of(UnionSchema.of(Integer.class), 42));
+        assertEquals(ImmutableUnion.empty(SCHEMA), ImmutableUnion.empty(SCHEMA));
+    }
+
+    @Test
+    void testTryConsume() {
+        ImmutableUnion union = ImmutableUnion.of(SCHEMA, 42);
+        assertFalse(union.tryConsume(value -> fail("Should not consume String"), String.class));
+        assertTrue(union.tryConsume(value -> assertEquals(42, value), Integer.class));
+
+        ParameterizedTypeImpl listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        ImmutableUnion list = ImmutableUnion.of(UnionSchema.of(listOfString), List.of("Hello"));
+        assertTrue(list.tryConsume(value -> assertEquals(List.of("Hello"), value), listOfString));
+    }
+
+    @Test
+    void testConversionToAndFromUnion() {
+        Union union = Union.ofSchema(UnionSchema.of(String.class, int.class));
+        assertEquals(ImmutableUnion.empty(union.getSchema()), union.toImmutable());
+
+        union.setInt(42);
+        ImmutableUnion snapshot = union.toImmutable();
+        union.setValue("Hello");
+        assertEquals(int.class, snapshot.getType());
+        assertEquals(42, (int) snapshot.getValue());
+
+        Union copy = snapshot.toUnion();
+        assertEquals(int.class, copy.getType());
+        assertEquals(42, copy.getInt());
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("ImmutableUnion{types=[class java.lang.String, class java.lang.Integer, class java.lang.Double], "
+            + "type=java.lang.Integer, value=42}", ImmutableUnion.of(SCHEMA, 42).toString());
+    }
+
+    @Test
+    void testFormatToMatchesToString() throws IOException {
+        UnionSchema schema = UnionSchema.of(String.class, int.class);
+        ImmutableUnion empty = ImmutableUnion.empty(schema);
+        ImmutableUnion union = ImmutableUnion.of(schema, 42);
+        assertEquals("ImmutableUnion{types=[class java.lang.String, int], value=null}", empty.toString());
+        assertEquals("ImmutableUnion{types=[class java.lang.String, int], type=int, value=42}", union.toString());
+        assertEquals(union.toString(), union.formatTo(new StringBuilder()).toString());
+        assertEquals(empty.toString(), empty.formatTo(new StringWriter()).toString());
+    }
+}
@@ -0,0 +1,128 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypeMatcherTest {
+
+    // fields used only to obtain reflective generic types that ParameterizedTypeImpl cannot express
+    @SuppressWarnings("unused")
+    private static class Holder<T extends CharSequence> {
+        List<String>[] arrayOfListOfString;
+        List<? extends Number> listOfNumbers;
+        List<? super Integer> listOfSuperInteger;
+        List<T> listOfT;
+    }
+
+    @Test
+    void testMapKeysAndValues() {
+        Type mapOfStringToInteger = new ParameterizedTypeImpl(Map.class, String.class, Integer.class);
+        assertTrue(TypeMatcher.isInstanceOfType(Map.of("a", 1, "b", 2), mapOfStringToInteger));
+        assertTrue(TypeMatcher.isInstanceOfType(Map.of(), mapOfStringToInteger));
+        assertFalse(TypeMatcher.isInstanceOfType(Map.of(1, "a"), mapOfStringToInteger));
+        assertFalse(TypeMatcher.isInstanceOfType(Map.of("a", "b"), mapOfStringToInteger));
+        assertFalse(TypeMatcher.isInstanceOfType(List.of("a"), mapOfStringToInteger));
+    }
+
+    @Test
+    void testNestedMapsOfLists() {
+        Type type = new ParameterizedTypeImpl(Map.class, String.class,
+            new ParameterizedTypeImpl(List.class, new ParameterizedTypeImpl(Map.class, String.class, Double.class)));
+
+        Map<String, List<? extends Map<String, ?>>> value = new HashMap<>();
+        value.put("a", List.of(Map.of("x", 1.0), Map.of("y", 2.0)));
+        value.put("b", List.of());
+        assertTrue(TypeMatcher.isInstanceOfType(value, type));
+
+        value.put("c", List.of(Map.of("z", 3)));
+        assertFalse(TypeMatcher.isInstanceOfType(value, type));
+    }
+
+    @Test
+    void testOptional() {
+        Type optionalOfString = new ParameterizedTypeImpl(Optional.class, String.class);
+        assertTrue(TypeMatcher.isInstanceOfType(Optional.of("a"), optionalOfString));
+        assertTrue(TypeMatcher.isInstanceOfType(Optional.empty(), optionalOfString));
+        assertFalse(TypeMatcher.isInstanceOfType(Optional.of(1), optionalOfString));
+    }
+
+    @Test
+    void testGenericArray() throws Exception {
+        Type arrayOfListOfString = Holder.class.getDeclaredField("arrayOfListOfString").getGenericType();
+
+        @SuppressWarnings("unchecked")
+        List<String>[] valid = new List[] { List.of("a"), List.of("b", "c") };
+        assertTrue(TypeMatcher.isInstanceOfType(valid, arrayOfListOfString));
+
+        @SuppressWarnings("unchecked")
+        List<?>[] invalid = new List[] { List.of("a"), List.of(1) };
+        assertFalse(TypeMatcher.isInstanceOfType(invalid, arrayOfListOfString));
+        assertFalse(TypeMatcher.isInstanceOfType(new String[] { "a" }, arrayOfListOfString));
+        assertEquals(List[].class, TypeMatcher.erasure(arrayOfListOfString));
+    }
+
+    @Test
+    void testWildcardsAndTypeVariables() throws Exception {
+        Type listOfNumbers = Holder.class.getDeclaredField("listOfNumbers").getGenericType();
+        assertTrue(TypeMatcher.isInstanceOfType(List.of(1, 2.0, 3L), listOfNumbers));
+        assertFalse(TypeMatcher.isInstanceOfType(List.of(1, "a"), listOfNumbers));
+
+        Type listOfSuperInteger = Holder.class.getDeclaredField("listOfSuperInteger").getGenericType();
+        assertTrue(TypeMatcher.isInstanceOfType(List.of(1, "a"), listOfSuperInteger));
+
+        Type listOfT = Holder.class.getDeclaredField("listOfT").getGenericType();
+        assertTrue(TypeMatcher.isInstanceOfType(List.of("a", new StringBuilder("b")), listOfT));
+        assertFalse(TypeMatcher.isInstanceOfType(List.of(1), listOfT));
+    }
+
+    @Test
+    void testPrimitiveTypeArguments() {
+        Type listOfInt = new ParameterizedTypeImpl(List.class, int.class);
+        assertTrue(TypeMatcher.isInstanceOfType(List.of(1, 2), listOfInt));
+        assertFalse(TypeMatcher.isInstanceOfType(List.of(1L), listOfInt));
+    }
+
+    @Test
+    void testNonRandomAccessCollections() {
+        Type setOfString = new ParameterizedTypeImpl(Set.class, String.class);
+        assertTrue(TypeMatcher.isInstanceOfType(Set.of("a", "b"), setOfString));
+        assertFalse(TypeMatcher.isInstanceOfType(Set.of("a", 1), setOfString));
+
+        Type listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        assertFalse(TypeMatcher.isInstanceOfType(new LinkedList<>(Arrays.asList("a", null)), listOfString));
+    }
+
+    @Test
+    void testUnverifiableParameterizedTypesNeverMatch() {
+        Type comparableOfString = new ParameterizedTypeImpl(Comparable.class, String.class);
+        assertFalse(TypeMatcher.isInstanceOfType("a", comparableOfString));
+    }
+
+    @Test
+    void testUnionOfMapsAndArrays() throws Exception {
+        Type mapOfStringToListOfInteger = new ParameterizedTypeImpl(Map.class, String.class,
+            new ParameterizedTypeImpl(List.class, Integer.class));
+        Type mapOfStringToListOfString = new ParameterizedTypeImpl(Map.class, String.class,
+            new ParameterizedTypeImpl(List.class, String.class));
+        Type arrayOfListOfString = Holder.class.getDeclaredField("arrayOfListOfString").getGenericType();
+        Union union = Union.ofTypes(mapOfStringToListOfInteger, mapOfStringToListOfString, arrayOfListOfString);
+
+        union.setValue(Map.of("a", List.of("x")));
+        assertEquals(mapOfStringToListOfString, union.getType());
+
+        union.setValue(new List[] { List.of("x") });
+        assertEquals(arrayOfListOfString, union.getType());
+
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(Map.of("a", List.of(1.0))));
+    }
+}
@@ -0,0 +1,83 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypesTest {
+
+    @Test
+    void testParameterizedIsInterned() {
+        ParameterizedTypeImpl listOfString = Types.parameterized(List.class, String.class);
+        assertSame(listOfString, Types.parameterized(List.class, String.class));
+        assertNotSame(listOfString, Types.parameterized(List.class, Integer.class));
+        assertNotSame(listOfString, Types.parameterized(Iterable.class, String.class));
+
+        assertEquals(List.class, listOfString.getRawType());
+        assertArrayEquals(new Type[] { String.class }, listOfString.getActualTypeArguments());
+        assertEquals("java.util.List<java.lang.String>", listOfString.getTypeName());
+    }
+
+    @Test
+    void testParameterizedEqualsConstructedInstances() {
+        ParameterizedTypeImpl constructed = new ParameterizedTypeImpl(Map.class, String.class,
+            new ParameterizedTypeImpl(List.class, Integer.class));
+        ParameterizedTypeImpl interned = Types.parameterized(Map.class, String.class,
+            Types.parameterized(List.class, Integer.class));
+
+        assertEquals(constructed, interned);
+        assertEquals(constructed.hashCode(), interned.hashCode());
+        assertEquals(constructed.toString(), interned.toString());
+        assertEquals("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>", interned.toString());
+    }
+
+    @Test
+    void testConstructorCopiesArguments() {
+        Type[] args = { String.class };
+        ParameterizedTypeImpl type = new ParameterizedTypeImpl(List.class, args);
+        args[0] = Integer.class;
+        assertEquals(Types.parameterized(List.class, String.class), type);
+
+        // nor can the arguments be changed through the type itself
+        ParameterizedTypeImpl interned = Types.parameterized(List.class, String.class);
+        interned.getActualTypeArguments()[0] = Integer.class;
+        assertArrayEquals(new Type[] { String.class }, interned.getActualTypeArguments());
+        assertEquals("java.util.List<java.lang.String>", interned.getTypeName());
+    }
+
+    @Test
+    void testManyParameterizationsOfOneRawType() {
+        Class<?>[] classes = { String.class, Integer.class, Long.class, Double.class, Object.class, Thread.class,
+            Runnable.class, Character.class, Byte.class, Short.class, Float.class, Boolean.class };
+        ParameterizedTypeImpl[][] types = new ParameterizedTypeImpl[classes.length][classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            for (int j = 0; j < classes.length; j++) {
+                types[i][j] = Types.parameterized(Map.class, classes[i], classes[j]);
+            }
+        }
+        for (int i = 0; i < classes.length; i++) {
+            for (int j = 0; j < classes.length; j++) {
+                assertSame(types[i][j], Types.parameterized(Map.class, classes[i], classes[j]));
+                assertArrayEquals(new Type[] { classes[i], classes[j] }, types[i][j].getActualTypeArguments());
+            }
+        }
+    }
+
+    @Test
+    void testSchemaHoldsCanonicalTypes() {
+        UnionSchema schema = UnionSchema.of(new ParameterizedTypeImpl(List.class, Short.class),
+            new ParameterizedTypeImpl(List.class, Byte.class));
+        assertSame(Types.parameterized(List.class, Short.class), schema.getType(0));
+        assertSame(Types.parameterized(List.class, Byte.class), schema.getType(1));
+    }
+
+    @Test
+    void testNullArgumentsAreRejected() {
+        assertThrows(NullPointerException.class, () -> Types.parameterized(null, String.class));
+        assertThrows(NullPointerException.class, () -> Types.parameterized(List.class, (Type) null));
+    }
+}
@@ -0,0 +1,95 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionBinderTest {
+
+    @Test
+    void testBindingConsumesMatchingType() {
+        List<String> consumed = new ArrayList<>();
+        UnionBinder.Binding<String> binding = Union.binder(String.class).bind(consumed::add);
+
+        Union union = Union.ofTypes(String.class, Integer.class, Double.class);
+        union.setValue("Hello");
+        assertTrue(binding.tryConsume(union));
+        union.setValue(42);
+        assertFalse(binding.tryConsume(union));
+        union.setValue("World");
+        assertTrue(binding.tryConsume(union));
+        assertEquals(List.of("Hello", "World"), consumed);
+
+        assertFalse(binding.tryConsume(Union.ofTypes(String.class, Integer.class)));
+    }
+
+    @Test
+    void testBindingMatchesTryConsume() {
+        Union union = Union.ofTypes(Object.class, Number.class, int.class);
+        Object[] values = { "Hello", 42L, 7, 3.14 };
+        List<Class<?>> targets = List.of(Object.class, String.class, Number.class, Long.class, Integer.class,
+            int.class, Double.class, CharSequence.class);
+
+        for (Object value : values) {
+            union.setValue(value);
+            for (Class<?> target : targets) {
+                assertEquals(tryConsume(union, target), Union.binder(target).bind(v -> { }).tryConsume(union),
+                    () -> "value " + value + " as " + target);
+            }
+        }
+    }
+
+    @Test
+    void testBindingPrimitiveMembers() {
+        List<Object> consumed = new ArrayList<>();
+        Union union = Union.ofTypes(int.class, double.class);
+        union.setInt(42);
+        assertTrue(Union.binder(Integer.class).bind(consumed::add).tryConsume(union));
+        assertTrue(Union.binder(int.class).bind(consumed::add).tryConsume(union));
+        assertTrue(Union.binder(Number.class).bind(consumed::add).tryConsume(union));
+        assertFalse(Union.binder(Double.class).bind(consumed::add).tryConsume(union));
+        assertEquals(List.of(42, 42, 42), consumed);
+    }
+
+    @Test
+    void testBindingGenericTypes() {
+        List<List<String>> consumed = new ArrayList<>();
+        UnionBinder.Binding<List> binding = Union.binder(List.class, String.class).bind(consumed::add);
+
+        Union union = Union.ofTypes(new ParameterizedTypeImpl(List.class, String.class),
+            new ParameterizedTypeImpl(List.class, Integer.class));
+        union.setValue(List.of("a", "b"));
+        assertTrue(binding.tryConsume(union));
+        union.setValue(List.of(1, 2));
+        assertFalse(binding.tryConsume(union));
+        assertEquals(List.of(List.of("a", "b")), consumed);
+
+        // a generic value declared as a wider type is checked against the expected type
+        Union objects = Union.ofTypes(Object.class);
+        objects.setValue(List.of("c"));
+        assertTrue(binding.tryConsume(objects));
+        objects.setValue(List.of(3));
+        assertFalse(binding.tryConsume(objects));
+    }
+
+    @Test
+    void testBindingImmutableUnionAndEmptyUnion() {
+        List<Double> consumed = new ArrayList<>();
+        UnionBinder.Binding<Double> binding = Union.binder(Double.class).bind(consumed::add);
+        UnionSchema schema = UnionSchema.of(String.class, Double.class);
+
+        assertTrue(binding.tryConsume(ImmutableUnion.of(schema, 2.5)));
+        assertFalse(binding.tryConsume(ImmutableUnion.of(schema, "2.5")));
+        assertFalse(binding.tryConsume(ImmutableUnion.empty(schema)));
+        assertFalse(binding.tryConsume(Union.ofSchema(schema)));
+        assertEquals(List.of(2.5), consumed);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static boolean tryConsume(Union union, Class target) {
+        return union.tryConsume(v -> { }, target);
+    }
+}
@@ -0,0 +1,154 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionCodecTest {
+    private static final UnionSchema SCHEMA = UnionSchema.of(int.class, long.class, float.class, double.class,
+        boolean.class, char.class, short.class, byte.class, String.class, Integer.class,
+        Types.parameterized(List.class, String.class),
+        Types.parameterized(List.class, Types.parameterized(List.class, Double.class)));
+
+    private static final UnionCodec CODEC = UnionCodec.of(SCHEMA);
+
+    @Test
+    void testRoundTripEveryMember() throws IOException {
+        Object[] values = { Integer.MIN_VALUE, Long.MAX_VALUE, -1.5f, Double.NaN, true, '€', (short) -300,
+            (byte) 7, "héllo 😀 wörld", List.of("a", "", "ß"),
+            List.of(List.of(1.0, 2.0), List.of()) };
+        for (Object value : values) {
+            Union union = Union.ofSchema(SCHEMA);
+            union.setValue(value);
+            assertRoundTrip(union);
+        }
+    }
+
+    @Test
+    void testWrapperMemberIsEncodedByTag() throws IOException {
+        // Integer values resolve to the int member, so set the Integer member by decoding it
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 10).put((byte) 84).flip();
+        Union union = CODEC.read(buffer);
+        assertEquals(9, union.getTag());
+        assertEquals(Integer.class, union.getType());
+        assertEquals(42, (Integer) union.getValue());
+        assertRoundTrip(union);
+    }
+
+    @Test
+    void testEmptyUnion() throws IOException {
+        Union union = Union.ofSchema(SCHEMA);
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        CODEC.write(union, buffer);
+        assertArrayEquals(new byte[] { 0 }, buffer.array());
+        assertRoundTrip(union);
+
+        Union target = Union.ofSchema(SCHEMA);
+        target.setValue("not empty");
+        buffer.flip();
+        CODEC.read(buffer, target);
+        assertEquals(-1, target.getTag());
+        assertNull(target.getValue());
+    }
+
+    @Test
+    void testCompactEncoding() {
+        Union union = Union.ofSchema(SCHEMA);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        union.setInt(-1);
+        CODEC.write(union, buffer);
+        assertEquals(2, buffer.position(), "tag and zigzag varint");
+
+        buffer.clear();
+        union.setDouble(1.0);
+        CODEC.write(union, buffer);
+        assertEquals(9, buffer.position(), "tag and raw double bits");
+
+        buffer.clear();
+        union.setValue("abc");
+        CODEC.write(union, buffer);
+        assertArrayEquals(new byte[] { 9, 3, 'a', 'b', 'c' }, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    void testByteOrderOfBufferDoesNotChangeEncoding() {
+        Union union = Union.ofSchema(SCHEMA);
+        union.setFloat(3.25f);
+        ByteBuffer big = ByteBuffer.allocate(8);
+        ByteBuffer little = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        CODEC.write(union, big);
+        CODEC.write(union, little);
+        assertArrayEquals(big.array(), little.array());
+
+        little.flip();
+        assertEquals(3.25f, CODEC.read(little).getFloat());
+    }
+
+    @Test
+    void testDirectBufferAndNonRandomAccessList() {
+        Union union = Union.ofSchema(SCHEMA);
+        union.setValue(new LinkedList<>(List.of("x", "y")));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        CODEC.write(union, buffer);
+        buffer.flip();
+        assertEquals(List.of("x", "y"), CODEC.read(buffer).getValue());
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> UnionCodec.of(UnionSchema.of(Object.class)));
+        assertThrows(IllegalArgumentException.class,
+            () -> UnionCodec.of(UnionSchema.of(Types.parameterized(List.class, Object.class))));
+
+        assertThrows(IllegalArgumentException.class, () -> CODEC.read(ByteBuffer.wrap(new byte[] { 99 })));
+        assertThrows(BufferUnderflowException.class, () -> CODEC.read(ByteBuffer.wrap(new byte[] { 9, 5, 'a' })));
+        assertThrows(EOFException.class,
+            () -> CODEC.read(new DataInputStream(new ByteArrayInputStream(new byte[] { 4 }))));
+
+        Union other = Union.ofTypes(String.class);
+        assertThrows(IllegalArgumentException.class, () -> CODEC.write(other, ByteBuffer.allocate(8)));
+
+        // null elements are not accepted by setValue, but may be added to the list afterwards
+        List<String> list = new ArrayList<>(List.of("a"));
+        Union withNull = Union.ofSchema(SCHEMA);
+        withNull.setValue(list);
+        list.add(null);
+        assertThrows(IllegalArgumentException.class, () -> CODEC.write(withNull, ByteBuffer.allocate(8)));
+    }
+
+    private static void assertRoundTrip(Union union) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        CODEC.write(union, buffer);
+        buffer.flip();
+        Union fromBuffer = CODEC.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertSameContents(union, fromBuffer);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CODEC.write(union, new DataOutputStream(bytes));
+        assertArrayEquals(Arrays.copyOf(buffer.array(), buffer.limit()), bytes.toByteArray());
+        Union fromStream = CODEC.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertSameContents(union, fromStream);
+    }
+
+    private static void assertSameContents(Union expected, Union actual) {
+        assertEquals(expected.getTag(), actual.getTag());
+        assertEquals((Object) expected.getValue(), actual.getValue());
+    }
+}
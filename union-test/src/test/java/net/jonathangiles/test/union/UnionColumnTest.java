@@ -0,0 +1,117 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionColumnTest {
+    private static final UnionSchema SCHEMA = UnionSchema.of(int.class, float.class, double.class);
+
+    @Test
+    void testTypedAccessors() {
+        UnionColumn column = UnionColumn.allocate(SCHEMA, 4);
+        assertEquals(4, column.length());
+        assertEquals(-1, column.getTag(0));
+        assertNull(column.getValue(0));
+
+        column.setInt(0, -42);
+        column.setFloat(1, 1.5f);
+        column.setDouble(2, Math.PI);
+        assertEquals(-42, column.getInt(0));
+        assertEquals(1.5f, column.getFloat(1));
+        assertEquals(Math.PI, column.getDouble(2));
+        assertEquals(0, column.getTag(0));
+        assertEquals(1, column.getTag(1));
+        assertEquals(2, column.getTag(2));
+        assertEquals(-42, column.getValue(0));
+
+        assertThrows(IllegalArgumentException.class, () -> column.getFloat(0));
+        assertThrows(IllegalArgumentException.class, () -> column.getInt(3));
+        assertThrows(IllegalArgumentException.class, () -> column.getLong(0));
+        assertThrows(IllegalArgumentException.class, () -> column.setLong(0, 1L));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.setInt(4, 1));
+
+        column.clear(0);
+        assertEquals(-1, column.getTag(0));
+    }
+
+    @Test
+    void testSetValueAndUnionCopies() {
+        UnionColumn column = UnionColumn.allocate(SCHEMA, 3);
+        column.setValue(0, 2.5);
+        assertEquals(2.5, column.getDouble(0));
+        assertThrows(IllegalArgumentException.class, () -> column.setValue(1, "not a number"));
+
+        Union union = Union.ofSchema(SCHEMA);
+        union.setFloat(-0.0f);
+        column.set(1, union);
+        assertEquals(Float.floatToRawIntBits(-0.0f), Float.floatToRawIntBits(column.getFloat(1)));
+
+        Union copy = Union.ofSchema(SCHEMA);
+        column.get(0, copy);
+        assertEquals(2.5, copy.getDouble());
+        column.get(2, copy);
+        assertEquals(-1, copy.getTag());
+
+        assertThrows(IllegalArgumentException.class, () -> column.set(0, Union.ofTypes(int.class)));
+    }
+
+    @Test
+    void testFill() {
+        UnionColumn column = UnionColumn.allocate(SCHEMA, 10);
+        Union union = Union.ofSchema(SCHEMA);
+        union.setInt(7);
+        column.fill(2, 8, union);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i >= 2 && i < 8 ? 0 : -1, column.getTag(i));
+        }
+        assertEquals(7, column.getInt(5));
+
+        column.fill(0, 10, Union.ofSchema(SCHEMA));
+        assertEquals(-1, column.getTag(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> column.fill(5, 11, union));
+    }
+
+    @Test
+    void testOnlyPrimitiveSchemas() {
+        assertThrows(IllegalArgumentException.class,
+            () -> UnionColumn.allocate(UnionSchema.of(int.class, String.class), 1));
+        assertThrows(IllegalArgumentException.class, () -> UnionColumn.allocate(SCHEMA, -1));
+        assertThrows(IllegalArgumentException.class, () -> UnionColumn.allocate(SCHEMA, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testMappedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("column.bin");
+        int length = 1000;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            UnionColumn column = UnionColumn.map(SCHEMA, channel, FileChannel.MapMode.READ_WRITE, 0, length);
+            assertEquals(-1, column.getTag(0), "a new file is a column of empty elements");
+            for (int i = 0; i < length; i++) {
+                if (i % 2 == 0) {
+                    column.setInt(i, i);
+                } else {
+                    column.setDouble(i, i / 2.0);
+                }
+            }
+        }
+        assertEquals(UnionColumn.byteSize(length), Files.size(file));
+        assertEquals(1000 + 8 * 1000, UnionColumn.byteSize(length));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            UnionColumn column = UnionColumn.map(SCHEMA, channel, FileChannel.MapMode.READ_ONLY, 0, length);
+            assertEquals(998, column.getInt(998));
+            assertEquals(499.5, column.getDouble(999));
+            assertThrows(ReadOnlyBufferException.class, () -> column.setInt(0, 1));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.jonathangiles.test.union;
+
+import net.jonathangiles.test.union.UnionFootprint.Layout;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionFootprintTest {
+    private static final Layout COMPRESSED = Layout.COMPRESSED_OOPS;
+    private static final Layout UNCOMPRESSED = Layout.UNCOMPRESSED;
+
+    @SuppressWarnings("unused")
+    private static class Empty {
+    }
+
+    @SuppressWarnings("unused")
+    private static class OneLong {
+        long a;
+    }
+
+    @SuppressWarnings("unused")
+    private static class IntAndLong {
+        int a;
+        long b;
+    }
+
+    @SuppressWarnings("unused")
+    private static class ThreeBytes {
+        byte a;
+        byte b;
+        boolean c;
+    }
+
+    @SuppressWarnings("unused")
+    private static class ShortsAndLong extends ThreeBytes {
+        short d;
+        short e;
+        long f;
+        Object g;
+    }
+
+    @Test
+    void testInstanceSizes() {
+        assertEquals(16, COMPRESSED.instanceSize(Empty.class));
+        assertEquals(16, UNCOMPRESSED.instanceSize(Empty.class));
+
+        // the four bytes after the header cannot hold the long, and nothing else fills them
+        assertEquals(24, COMPRESSED.instanceSize(OneLong.class));
+        assertEquals(24, UNCOMPRESSED.instanceSize(OneLong.class));
+
+        // the int fills the gap after the header
+        assertEquals(24, COMPRESSED.instanceSize(IntAndLong.class));
+        assertEquals(32, UNCOMPRESSED.instanceSize(IntAndLong.class));
+
+        assertEquals(16, COMPRESSED.instanceSize(ThreeBytes.class));
+        assertEquals(24, UNCOMPRESSED.instanceSize(ThreeBytes.class));
+
+        // 12 + (the reference in the gap) + 8 + 4 + 3 = 31, and 16 + 8 + 8 + 4 + 3 = 39
+        assertEquals(32, COMPRESSED.instanceSize(ShortsAndLong.class));
+        assertEquals(40, UNCOMPRESSED.instanceSize(ShortsAndLong.class));
+
+        assertThrows(IllegalArgumentException.class, () -> COMPRESSED.instanceSize(int[].class));
+    }
+
+    @Test
+    void testArrayAndStringSizes() {
+        assertEquals(16, COMPRESSED.arraySize(long.class, 0));
+        assertEquals(32, COMPRESSED.arraySize(int.class, 3));
+        assertEquals(24, COMPRESSED.arraySize(Object.class, 2));
+        assertEquals(40, UNCOMPRESSED.arraySize(Object.class, 2));
+        assertEquals(24, UNCOMPRESSED.arraySize(byte.class, 0));
+
+        // a 24 byte String and its 3 Latin-1 bytes
+        assertEquals(48, COMPRESSED.stringSize("abc"));
+        // two UTF-16 chars
+        assertEquals(48, COMPRESSED.stringSize("€€"));
+    }
+
+    @Test
+    void testUnionSizes() {
+        // header, schema, value, tag, and the 8 byte payload of primitive values
+        assertEquals(32, UnionFootprint.unionBytes(COMPRESSED));
+        assertEquals(48, UnionFootprint.unionBytes(UNCOMPRESSED));
+        assertEquals(1_000 * 32 + 16 + 4_000, UnionFootprint.unionArrayBytes(1_000, COMPRESSED));
+
+        UnionSchema small = UnionSchema.of(int.class);
+        UnionSchema large = UnionSchema.of(String.class, int.class, Types.parameterized(List.class, String.class));
+        long smallBytes = UnionFootprint.schemaBytes(small, COMPRESSED);
+        assertTrue(smallBytes > 0);
+        assertTrue(UnionFootprint.schemaBytes(large, COMPRESSED) > smallBytes);
+        assertTrue(UnionFootprint.schemaBytes(small, UNCOMPRESSED) > smallBytes);
+    }
+
+    @Test
+    void testCurrentLayout() {
+        Layout layout = Layout.current();
+        assertTrue(layout.headerBytes() == 12 || layout.headerBytes() == 16);
+        assertTrue(layout.referenceBytes() == 4 || layout.referenceBytes() == 8);
+        assertEquals(0, layout.alignment() % 8);
+        assertThrows(IllegalArgumentException.class, () -> new Layout(12, 6, 8));
+    }
+
+    @Test
+    void testSchemaSizeIsCapped() {
+        Class<?>[] types = new Class<?>[UnionSchema.MAX_TYPES + 1];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = i % 2 == 0 ? String.class : Integer.class;
+        }
+        assertThrows(IllegalArgumentException.class, () -> UnionSchema.of(types));
+        assertEquals(UnionSchema.MAX_TYPES,
+            UnionSchema.of(java.util.Arrays.copyOf(types, UnionSchema.MAX_TYPES)).size());
+    }
+}
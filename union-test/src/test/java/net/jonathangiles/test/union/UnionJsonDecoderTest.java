@@ -0,0 +1,144 @@
+package net.jonathangiles.test.union;
+
+import net.jonathangiles.test.union.json.JsonReader;
+import net.jonathangiles.test.union.json.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionJsonDecoderTest {
+    private static final UnionJsonDecoder MODEL_DECODER =
+        UnionJsonDecoder.of(UnionSchema.of(String.class, Integer.class, Double.class));
+
+    private static final UnionJsonDecoder LIST_DECODER = UnionJsonDecoder.of(UnionSchema.of(
+        Types.parameterized(List.class, String.class),
+        Types.parameterized(List.class, Integer.class),
+        Types.parameterized(List.class, Float.class)));
+
+    @Test
+    void testScalarMembers() throws IOException {
+        Union union = MODEL_DECODER.decode(JsonReader.of("\"Hello\\n\\u00e9\""));
+        assertEquals(String.class, union.getType());
+        assertEquals("Hello\né", union.getValue());
+
+        union = MODEL_DECODER.decode(JsonReader.of("3"));
+        assertEquals(Integer.class, union.getType());
+        assertEquals(3, (Integer) union.getValue());
+
+        union = MODEL_DECODER.decode(JsonReader.of("3.5"));
+        assertEquals(Double.class, union.getType());
+        assertEquals(3.5, (Double) union.getValue());
+
+        // too large for the Integer member, so it falls through to the Double member
+        union = MODEL_DECODER.decode(JsonReader.of("-12345678901"));
+        assertEquals(Double.class, union.getType());
+        assertEquals(-12345678901.0, (Double) union.getValue());
+    }
+
+    @Test
+    void testPrimitiveMembers() throws IOException {
+        UnionJsonDecoder decoder = UnionJsonDecoder.of(UnionSchema.of(byte.class, long.class, float.class,
+            boolean.class));
+        Union union = Union.ofSchema(decoder.getSchema());
+
+        decoder.decode(JsonReader.of("-128"), union);
+        assertEquals(byte.class, union.getType());
+        assertEquals((byte) -128, (Byte) union.getValue());
+
+        decoder.decode(JsonReader.of("128"), union);
+        assertEquals(long.class, union.getType());
+        assertEquals(128L, union.getLong());
+
+        decoder.decode(JsonReader.of("1e3"), union);
+        assertEquals(float.class, union.getType());
+        assertEquals(1000f, union.getFloat());
+
+        decoder.decode(JsonReader.of("true"), union);
+        assertEquals(boolean.class, union.getType());
+        assertTrue((Boolean) union.getValue());
+
+        decoder.decode(JsonReader.of("null"), union);
+        assertEquals(-1, union.getTag());
+        assertNull(union.getValue());
+    }
+
+    @Test
+    void testListMembers() throws IOException {
+        Union union = LIST_DECODER.decode(JsonReader.of("[\"a\", \"b\"]"));
+        assertEquals(0, union.getTag());
+        assertEquals(List.of("a", "b"), union.getValue());
+
+        union = LIST_DECODER.decode(JsonReader.of("[1, 2, 3]"));
+        assertEquals(1, union.getTag());
+        assertEquals(List.of(1, 2, 3), union.getValue());
+
+        // the first member of lists is chosen for an empty array
+        union = LIST_DECODER.decode(JsonReader.of("[ ]"));
+        assertEquals(0, union.getTag());
+        assertEquals(List.of(), union.getValue());
+    }
+
+    @Test
+    void testListIsPromotedToLaterMember() throws IOException {
+        Union union = LIST_DECODER.decode(JsonReader.of("[1, 2, 2.5, 3]"));
+        assertEquals(2, union.getTag());
+        assertEquals(List.of(1f, 2f, 2.5f, 3f), union.getValue());
+        assertTrue(union.tryConsume(list -> assertEquals(4, list.size()), List.class, Float.class));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> LIST_DECODER.decode(JsonReader.of("[1, \"a\"]")));
+        assertTrue(e.getMessage().endsWith("accepts the array element a"), e.getMessage());
+    }
+
+    @Test
+    void testNestedLists() throws IOException {
+        UnionJsonDecoder decoder = UnionJsonDecoder.of(UnionSchema.of(
+            Types.parameterized(List.class, Integer.class),
+            Types.parameterized(List.class, Types.parameterized(List.class, Double.class))));
+        Union union = decoder.decode(JsonReader.of("[[1, 2.5], [], [3]]"));
+        assertEquals(1, union.getTag());
+        assertEquals(List.of(List.of(1.0, 2.5), List.of(), List.of(3.0)), union.getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(JsonReader.of("[[1, \"a\"]]")));
+    }
+
+    @Test
+    void testDecodeFieldOfObject() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(
+            "{\"prop2\": {\"skipped\": [1, {\"a\": null}]}, \"prop1\": 42, \"prop3\": false}"));
+        Union union = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("prop1")) {
+                union = MODEL_DECODER.decode(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+        assertNotNull(union);
+        assertEquals(42, (Integer) union.getValue());
+    }
+
+    @Test
+    void testErrors() {
+        assertThrows(IllegalArgumentException.class, () -> MODEL_DECODER.decode(JsonReader.of("true")));
+        assertThrows(IllegalArgumentException.class, () -> MODEL_DECODER.decode(JsonReader.of("[1]")));
+        assertThrows(IllegalArgumentException.class, () -> LIST_DECODER.decode(JsonReader.of("[1, null]")));
+        assertThrows(IllegalArgumentException.class,
+            () -> UnionJsonDecoder.of(UnionSchema.of(String.class, Object.class)));
+        assertThrows(IllegalArgumentException.class,
+            () -> MODEL_DECODER.decode(JsonReader.of("1"), Union.ofTypes(String.class)));
+        assertThrows(IllegalStateException.class, () -> MODEL_DECODER.decode(JsonReader.of("{}")));
+
+        assertThrows(IOException.class, () -> MODEL_DECODER.decode(JsonReader.of("01")));
+        assertThrows(IOException.class, () -> MODEL_DECODER.decode(JsonReader.of("\"unterminated")));
+        assertThrows(IOException.class, () -> LIST_DECODER.decode(JsonReader.of("[1 2]")));
+        assertThrows(IOException.class, () -> MODEL_DECODER.decode(JsonReader.of("tru")));
+    }
+}
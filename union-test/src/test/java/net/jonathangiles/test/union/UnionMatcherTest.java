@@ -0,0 +1,125 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionMatcherTest {
+
+    @Test
+    void testMatchDispatchesByType() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class, Double.class);
+        UnionMatcher<String> matcher = UnionMatcher.<String>builder(schema)
+            .on(String.class, s -> "String " + s.toUpperCase())
+            .on(Integer.class, i -> "Integer " + (i + 1))
+            .on(Double.class, d -> "Double " + d)
+            .build();
+
+        Union union = Union.ofSchema(schema);
+        union.setValue("hello");
+        assertEquals("String HELLO", union.match(matcher));
+        union.setValue(41);
+        assertEquals("Integer 42", union.match(matcher));
+        union.setValue(3.14);
+        assertEquals("Double 3.14", matcher.apply(union));
+        assertEquals("Integer 1", matcher.apply(ImmutableUnion.of(schema, 0)));
+    }
+
+    @Test
+    void testMatchPrimitiveMembers() {
+        UnionSchema schema = UnionSchema.of(int.class, long.class, float.class, double.class);
+        UnionMatcher<String> matcher = UnionMatcher.<String>builder(schema)
+            .onInt(i -> "int " + i)
+            .onLong(l -> "long " + l)
+            .on(float.class, f -> "float " + f)
+            .onDouble(d -> "double " + d)
+            .build();
+
+        Union union = Union.ofSchema(schema);
+        union.setInt(42);
+        assertEquals("int 42", union.match(matcher));
+        union.setLong(42L);
+        assertEquals("long 42", union.match(matcher));
+        union.setFloat(1.5f);
+        assertEquals("float 1.5", union.match(matcher));
+        union.setDouble(2.5);
+        assertEquals("double 2.5", union.match(matcher));
+        assertEquals("int 7", matcher.apply(ImmutableUnion.of(schema, 7)));
+    }
+
+    @Test
+    void testMatchSmallPrimitiveMembers() {
+        UnionSchema schema = UnionSchema.of(float.class, boolean.class, char.class, byte.class, short.class);
+        UnionMatcher<String> matcher = UnionMatcher.<String>builder(schema)
+            .onFloat(f -> "float " + f)
+            .onBoolean(b -> "boolean " + b)
+            .onChar(c -> "char " + c)
+            .onByte(b -> "byte " + b)
+            .onShort(s -> "short " + s)
+            .build();
+
+        Union union = Union.ofSchema(schema);
+        union.setFloat(1.5f);
+        assertEquals("float 1.5", union.match(matcher));
+        union.setValue(true);
+        assertEquals("boolean true", union.match(matcher));
+        union.setValue('x');
+        assertEquals("char x", union.match(matcher));
+        union.setValue((byte) -3);
+        assertEquals("byte -3", union.match(matcher));
+        union.setValue((short) 300);
+        assertEquals("short 300", union.match(matcher));
+        assertEquals("float -0.5", matcher.apply(ImmutableUnion.of(schema, -0.5f)));
+    }
+
+    @Test
+    void testMatchGenericMembers() {
+        ParameterizedTypeImpl listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        ParameterizedTypeImpl listOfInteger = new ParameterizedTypeImpl(List.class, Integer.class);
+        UnionSchema schema = UnionSchema.of(listOfString, listOfInteger);
+        UnionMatcher<Integer> matcher = UnionMatcher.<Integer>builder(schema)
+            .onType(listOfString, (List<String> strings) -> strings.size())
+            .onType(listOfInteger, (List<Integer> ints) -> ints.stream().mapToInt(Integer::intValue).sum())
+            .build();
+
+        Union union = Union.ofSchema(schema);
+        union.setValue(List.of("a", "b"));
+        assertEquals(2, union.match(matcher));
+        union.setValue(List.of(1, 2, 3));
+        assertEquals(6, union.match(matcher));
+    }
+
+    @Test
+    void testBuildRequiresEveryTypeToBeCovered() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class, Double.class);
+        UnionMatcher.Builder<String> builder = UnionMatcher.<String>builder(schema)
+            .on(String.class, s -> s);
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(e.getMessage().contains("java.lang.Integer"));
+        assertTrue(e.getMessage().contains("java.lang.Double"));
+    }
+
+    @Test
+    void testBuilderRejectsUndeclaredAndDuplicateTypes() {
+        UnionSchema schema = UnionSchema.of(String.class, int.class);
+        UnionMatcher.Builder<String> builder = UnionMatcher.<String>builder(schema)
+            .on(String.class, s -> s);
+        assertThrows(IllegalArgumentException.class, () -> builder.on(Long.class, l -> "long"));
+        assertThrows(IllegalArgumentException.class, () -> builder.onDouble(d -> "double"));
+        assertThrows(IllegalStateException.class, () -> builder.on(String.class, s -> s));
+    }
+
+    @Test
+    void testMatchRejectsOtherSchemasAndEmptyUnions() {
+        UnionSchema schema = UnionSchema.of(String.class);
+        UnionMatcher<String> matcher = UnionMatcher.<String>builder(schema).on(String.class, s -> s).build();
+
+        assertThrows(IllegalStateException.class, () -> Union.ofSchema(schema).match(matcher));
+
+        Union other = Union.ofTypes(String.class, Integer.class);
+        other.setValue("Hello");
+        assertThrows(IllegalArgumentException.class, () -> other.match(matcher));
+    }
+}
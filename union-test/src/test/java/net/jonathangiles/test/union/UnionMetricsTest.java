@@ -0,0 +1,179 @@
+package net.jonathangiles.test.union;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// the tests are run with metrics enabled by a surefire execution of their own, and are skipped if metrics are disabled;
+// each test uses a schema of its own, as schemas and their metrics are shared
+public class UnionMetricsTest {
+    @Test
+    void testCounters() {
+        assumeTrue(UnionMetrics.isEnabled());
+        UnionSchema schema = UnionSchema.of(AtomicLong.class, Types.parameterized(List.class, StringBuilder.class),
+            Types.parameterized(List.class, Character.class));
+        UnionMetrics metrics = schema.getMetrics();
+        assertNotNull(metrics);
+
+        Union union = Union.ofSchema(schema);
+        union.setValue(new AtomicLong(1));
+        union.setValue(new AtomicLong(2));
+        // the first list member checks the first element and rejects it, then the second checks all three
+        union.setValue(List.of('a', 'b', 'c'));
+        assertThrows(IllegalArgumentException.class, () -> union.setValue("Hello"));
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(List.of(1)));
+
+        assertArrayEquals(new long[] { 2, 0, 1 }, metrics.getHits());
+        assertEquals(1, metrics.getHits(2));
+        assertEquals(2, metrics.getMismatches());
+        assertEquals(6, metrics.getElementsScanned());
+        assertTrue(metrics.getValidationNanos() > 0);
+
+        Union.setAll(new Union[] { union, union }, new Object[] { new AtomicLong(3), new AtomicLong(4) });
+        assertEquals(4, metrics.getHits(0));
+
+        metrics.reset();
+        assertArrayEquals(new long[] { 0, 0, 0 }, metrics.getHits());
+        assertEquals(0, metrics.getMismatches());
+        assertEquals(0, metrics.getElementsScanned());
+    }
+
+    @Test
+    void testMXBean() throws Exception {
+        assumeTrue(UnionMetrics.isEnabled());
+        UnionSchema schema = UnionSchema.of(StringBuffer.class, Thread.State.class);
+        Union.ofSchema(schema).setValue(Thread.State.NEW);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = schema.getMetrics().objectName();
+        assertTrue(server.isRegistered(name));
+        assertEquals(schema.toString(), server.getAttribute(name, "SchemaName"));
+        assertArrayEquals(new long[] { 0, 1 }, (long[]) server.getAttribute(name, "Hits"));
+        assertEquals(0L, server.getAttribute(name, "Mismatches"));
+    }
+
+    @Test
+    void testJfrEvents() throws Exception {
+        assumeTrue(UnionMetrics.isEnabled());
+        UnionSchema schema = UnionSchema.of(StringBuffer.class, Types.parameterized(List.class, Thread.State.class));
+        Union union = Union.ofSchema(schema);
+        Path file = Files.createTempFile("union-metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.jonathangiles.test.union.Resolve").withThreshold(Duration.ZERO);
+            recording.start();
+            union.setValue(new StringBuffer());
+            union.setValue(List.of(Thread.State.NEW, Thread.State.RUNNABLE));
+            assertThrows(IllegalArgumentException.class, () -> union.setValue(42));
+            recording.stop();
+            recording.dump(file);
+
+            // only values that had to be checked themselves, or were rejected, are recorded
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("net.jonathangiles.test.union.Resolve"))
+                .filter(e -> schema.toString().equals(e.getString("schema")))
+                .toList();
+            assertEquals(2, events.size());
+            assertEquals(1, events.get(0).getInt("tag"));
+            assertEquals(2, events.get(0).getLong("elementsScanned"));
+            assertEquals(-1, events.get(1).getInt("tag"));
+            assertEquals(Integer.class.getName(), events.get(1).getClass("valueClass").getName());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testSchemasThatRenderTheSameKeepTheirOwnMBeans() throws Exception {
+        assumeTrue(UnionMetrics.isEnabled());
+        // distinct types with the same name, like same-named classes of two class loaders
+        UnionSchema first = UnionSchema.of(new NamedType("plugin.Payload"));
+        UnionSchema second = UnionSchema.of(new NamedType("plugin.Payload"));
+        assertNotSame(first, second);
+        assertEquals(first.toString(), second.toString());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName firstName = first.getMetrics().objectName();
+        ObjectName secondName = second.getMetrics().objectName();
+        assertNotEquals(firstName, secondName);
+        assertTrue(server.isRegistered(firstName));
+        assertTrue(server.isRegistered(secondName));
+
+        assertThrows(IllegalArgumentException.class, () -> Union.ofSchema(first).setValue("a"));
+        assertEquals(1L, server.getAttribute(firstName, "Mismatches"));
+        assertEquals(0L, server.getAttribute(secondName, "Mismatches"));
+    }
+
+    @Test
+    void testReinternedSchemaReplacesCollectedMBean() throws Exception {
+        assumeTrue(UnionMetrics.isEnabled());
+        Type[] types = { Thread.State.class, Types.parameterized(Optional.class, Thread.State.class) };
+        WeakReference<UnionSchema> ref = new WeakReference<>(UnionSchema.of(types));
+        ObjectName name = ref.get().getMetrics().objectName();
+        Union.ofSchema(ref.get()).setValue(Thread.State.NEW);
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // the collector is not obliged to clear the reference, for instance with -XX:+DisableExplicitGC
+        assumeTrue(ref.get() == null, "schema was not collected");
+
+        UnionSchema schema = UnionSchema.of(types);
+        assertEquals(name, schema.getMetrics().objectName());
+        Union.ofSchema(schema).setValue(Optional.of(Thread.State.NEW));
+        assertArrayEquals(new long[] { 0, 1 },
+            (long[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Hits"));
+    }
+
+    @Test
+    void testCollectedSchemaUnregistersItsMBean() throws Exception {
+        assumeTrue(UnionMetrics.isEnabled());
+        WeakReference<UnionSchema> ref = new WeakReference<>(UnionSchema.of(Thread.State.class, StringBuffer.class));
+        ObjectName name = ref.get().getMetrics().objectName();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assumeTrue(ref.get() == null, "schema was not collected");
+
+        // the MBean is unregistered by a cleaner thread, shortly after the schema is collected
+        for (int i = 0; i < 100 && server.isRegistered(name); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    private record NamedType(String name) implements Type {
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class UnionSchemaTest {
+
+    @Test
+    void testSchemasAreInternedByTypes() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class, Double.class);
+        assertSame(schema, UnionSchema.of(String.class, Integer.class, Double.class));
+        assertNotSame(schema, UnionSchema.of(Integer.class, String.class, Double.class));
+        assertEquals(3, schema.size());
+        assertEquals(List.of(String.class, Integer.class, Double.class), schema.getTypes());
+    }
+
+    @Test
+    void testParameterizedSchemasAreInternedByEquality() {
+        UnionSchema schema = UnionSchema.of(new ParameterizedTypeImpl(List.class, String.class));
+        assertSame(schema, UnionSchema.of(new ParameterizedTypeImpl(List.class, String.class)));
+    }
+
+    @Test
+    void testUnionsShareSchemaAndTypes() {
+        Union first = Union.ofTypes(String.class, Integer.class, Double.class);
+        Union second = Union.ofTypes(String.class, Integer.class, Double.class);
+        assertSame(first.getSchema(), second.getSchema());
+        assertSame(first.getTypes(), second.getTypes());
+        assertSame(first.getTypes(), first.getTypes());
+    }
+
+    @Test
+    void testTypesAreUnmodifiable() {
+        List<Type> types = UnionSchema.of(String.class, Integer.class).getTypes();
+        assertThrows(UnsupportedOperationException.class, () -> types.set(0, Double.class));
+        assertThrows(UnsupportedOperationException.class, () -> types.add(Double.class));
+    }
+
+    @Test
+    void testSchemaIsIsolatedFromCallerArray() {
+        Type[] types = {Long.class, Short.class};
+        UnionSchema schema = UnionSchema.of(types);
+        types[0] = String.class;
+        assertEquals(Long.class, schema.getType(0));
+    }
+
+    @Test
+    void testUnionOfSchemaTracksTag() {
+        Union union = Union.ofSchema(UnionSchema.of(String.class, Integer.class));
+        assertEquals(-1, union.getTag());
+        assertNull(union.getType());
+
+        union.setValue(42);
+        assertEquals(1, union.getTag());
+        assertEquals(Integer.class, union.getType());
+    }
+
+    @Test
+    void testClassify() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class, Types.parameterized(List.class, String.class));
+        Object[] values = { "a", "b", 1, 2, List.of("c"), List.of(3), null, 4.0, "d" };
+        byte[] tags = new byte[values.length + 1];
+        assertEquals(5, schema.classify(values, tags));
+        assertArrayEquals(new byte[] { 0, 0, 1, 1, 2, -1, -1, -1, 0, 0 }, tags);
+
+        assertEquals(-1, schema.classify(new Object[] { 1, "a" }, tags));
+        assertThrows(IllegalArgumentException.class, () -> schema.classify(values, new byte[1]));
+    }
+
+    @Test
+    void testAdaptiveDispatchIsInterned() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class, Double.class);
+        UnionSchema adaptive = schema.withAdaptiveDispatch(true);
+        assertNotSame(schema, adaptive);
+        assertSame(adaptive, schema.withAdaptiveDispatch(true));
+        assertSame(schema, adaptive.withAdaptiveDispatch(false));
+        assertTrue(adaptive.isAdaptiveDispatch());
+        assertFalse(schema.isAdaptiveDispatch());
+        assertEquals(schema.getTypes(), adaptive.getTypes());
+        assertEquals("UnionSchema[class java.lang.String, class java.lang.Integer, class java.lang.Double](adaptive)",
+            adaptive.toString());
+
+        UnionSchema sampled = adaptive.withValidationMode(ValidationMode.sampled(4));
+        assertTrue(sampled.isAdaptiveDispatch());
+        assertSame(adaptive, sampled.withValidationMode(ValidationMode.FULL));
+    }
+
+    @Test
+    void testStacklessRejectionIsInterned() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class).withAdaptiveDispatch(true);
+        UnionSchema stackless = schema.withStacklessRejection(true);
+        assertNotSame(schema, stackless);
+        assertSame(stackless, schema.withStacklessRejection(true));
+        assertSame(schema, stackless.withStacklessRejection(false));
+        assertTrue(stackless.isStacklessRejection());
+        assertTrue(stackless.isAdaptiveDispatch());
+        assertFalse(schema.isStacklessRejection());
+
+        UnionSchema sampled = stackless.withValidationMode(ValidationMode.sampled(4));
+        assertTrue(sampled.isStacklessRejection());
+        assertEquals("UnionSchema[class java.lang.String, class java.lang.Integer](" + ValidationMode.sampled(4)
+            + ", adaptive, stackless)", sampled.toString());
+        assertFalse(sampled.withAdaptiveDispatch(false).isAdaptiveDispatch());
+        assertTrue(sampled.withAdaptiveDispatch(false).isStacklessRejection());
+    }
+
+    @Test
+    void testAdaptiveDispatchKeepsFirstDeclaredMatch() {
+        UnionSchema schema = UnionSchema.of(CharSequence.class, String.class, Integer.class, Number.class)
+            .withAdaptiveDispatch(true);
+        Union union = Union.ofSchema(schema);
+        for (int i = 0; i < 10_000; i++) {
+            union.setValue(i * 0.5);
+            assertEquals(3, union.getTag());
+        }
+        union.setValue("Hello");
+        assertEquals(0, union.getTag());
+        union.setValue(42);
+        assertEquals(2, union.getTag());
+        union.setValue(42L);
+        assertEquals(3, union.getTag());
+        for (int i = 0; i < 10_000; i++) {
+            union.setValue("Hello");
+            assertEquals(0, union.getTag());
+        }
+        union.setValue(new StringBuilder());
+        assertEquals(0, union.getTag());
+        union.setValue(1.5);
+        assertEquals(3, union.getTag());
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(true));
+    }
+
+    @Test
+    void testAdaptiveDispatchStillChecksGenericValues() {
+        UnionSchema schema = UnionSchema.of(Types.parameterized(List.class, String.class),
+            Types.parameterized(List.class, Integer.class)).withAdaptiveDispatch(true);
+        Union union = Union.ofSchema(schema);
+        List<String> strings = List.of("a");
+        for (int i = 0; i < 10_000; i++) {
+            union.setValue(strings);
+        }
+        // the same List implementation class, but a value of the second member
+        union.setValue(List.of(1));
+        assertEquals(1, union.getTag());
+    }
+
+    @Test
+    void testInterfaceMembersResolveByRuntimeClass() {
+        UnionSchema schema = UnionSchema.of(CharSequence.class, Number.class);
+        Union union = Union.ofSchema(schema);
+        Object[] values = { "Hello", new StringBuilder("Hello"), 42, BigDecimal.ONE, new AtomicLong(1) };
+        int[] tags = { 0, 0, 1, 1, 1 };
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(tags[i], union.trySetValue(values[i]));
+                assertEquals(tags[i], schema.classify(values[i].getClass()));
+            }
+            // classes that no member accepts are remembered too
+            assertEquals(-1, union.trySetValue(UUID.randomUUID()));
+            assertEquals(-1, schema.classify(UUID.class));
+        }
+        UnionSchema generic = UnionSchema.of(Types.parameterized(List.class, String.class), CharSequence.class);
+        assertEquals(DispatchPlan.VALUE_DEPENDENT, generic.classify(List.of().getClass()));
+    }
+
+    @Test
+    void testSchemasAreOnlyWeaklyInterned() throws InterruptedException {
+        Type[] types = { Thread.State.class, Types.parameterized(List.class, Thread.State.class) };
+        WeakReference<UnionSchema> ref = new WeakReference<>(UnionSchema.of(types));
+        Union.ofSchema(ref.get()).setValue(Thread.State.NEW);
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // the collector is not obliged to clear the reference, for instance with -XX:+DisableExplicitGC
+        assumeTrue(ref.get() == null, "schema was not collected");
+
+        // a new schema takes the place of the collected one
+        UnionSchema schema = UnionSchema.of(types);
+        assertSame(schema, UnionSchema.of(types));
+        assertEquals(0, Union.ofSchema(schema).trySetValue(Thread.State.NEW));
+    }
+
+    @Test
+    void testNewUnionKeepsTag() {
+        UnionSchema schema = UnionSchema.of(Number.class, Integer.class, long.class);
+        assertEquals(0, Union.ofSchema(schema).trySetValue(5));
+        Union union = schema.newUnion(1, 5);
+        assertEquals(1, union.getTag());
+        assertEquals(5, union.<Integer>getValue());
+        assertEquals(2, schema.newUnion(2, 7L).getTag());
+        assertEquals(7L, schema.newUnion(2, 7L).getLong());
+        assertThrows(InvalidTypeException.class, () -> schema.newUnion(1, 5L));
+        assertThrows(InvalidTypeException.class, () -> schema.newUnion(1, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> schema.newUnion(3, 5));
+
+        assertEquals(-3L, schema.newUnionOfBits(2, -3L).getLong());
+        assertThrows(IllegalArgumentException.class, () -> schema.newUnionOfBits(0, 1L));
+    }
+}
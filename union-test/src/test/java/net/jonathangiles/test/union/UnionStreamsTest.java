@@ -0,0 +1,110 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionStreamsTest {
+    private static final UnionSchema SCHEMA = UnionSchema.of(int.class, Double.class, String.class, long.class);
+
+    private static List<Union> unions(int count) {
+        List<Union> unions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Union union = Union.ofSchema(SCHEMA);
+            switch (i % 5) {
+                case 0 -> union.setInt(i);
+                case 1 -> union.setValue(i / 2.0);
+                case 2 -> union.setValue("word" + i + " other");
+                case 3 -> union.setLong(i * 10L);
+                default -> {
+                    // left empty
+                }
+            }
+            unions.add(union);
+        }
+        return unions;
+    }
+
+    @Test
+    void testPartitionKeepsOrderWithinEachTag() {
+        // large enough to be split across several fork-join tasks
+        List<Union> unions = unions(50_000);
+        UnionStreams.Partition partition = UnionStreams.partition(SCHEMA, unions);
+        assertSame(SCHEMA, partition.getSchema());
+        for (int tag = -1; tag < SCHEMA.size(); tag++) {
+            assertEquals(10_000, partition.count(tag));
+        }
+        List<Union> ints = partition.get(0);
+        for (int i = 0; i < ints.size(); i++) {
+            assertSame(unions.get(i * 5), ints.get(i));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> ints.set(0, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> partition.count(SCHEMA.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> partition.count(-2));
+    }
+
+    @Test
+    void testPrimitiveStreams() {
+        List<Union> unions = unions(50_000);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            UnionStreams.Partition partition = UnionStreams.partition(SCHEMA, unions, pool);
+            long expectedInts = 0;
+            long expectedLongs = 0;
+            double expectedDoubles = 0;
+            for (int i = 0; i < 50_000; i++) {
+                switch (i % 5) {
+                    case 0 -> expectedInts += i;
+                    case 1 -> expectedDoubles += i / 2.0;
+                    case 3 -> expectedLongs += i * 10L;
+                    default -> {
+                    }
+                }
+            }
+            assertEquals(expectedInts, partition.ints(0).asLongStream().sum());
+            assertEquals(expectedDoubles, partition.doubles(1).sum(), 1e-6);
+            assertEquals(expectedLongs, partition.longs(3).sum());
+            assertThrows(IllegalArgumentException.class, () -> partition.ints(2).sum());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testStreamAndSpliterator() {
+        UnionStreams.Partition partition = UnionStreams.partition(SCHEMA, unions(20_000));
+        Set<String> words = ConcurrentHashMap.newKeySet();
+        partition.stream(2).forEach(u -> words.addAll(List.of(u.<String>getValue().split(" "))));
+        assertEquals(4_001, words.size());
+
+        Spliterator<Union> spliterator = partition.spliterator(-1);
+        assertEquals(4_000, spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertNotNull(spliterator.trySplit());
+    }
+
+    @Test
+    void testSmallAndEmptyCollections() {
+        UnionStreams.Partition partition = UnionStreams.partition(SCHEMA, List.of());
+        assertEquals(0, partition.count(0));
+        assertEquals(0, partition.ints(0).sum());
+
+        partition = UnionStreams.partition(SCHEMA, unions(7));
+        assertEquals(List.of(0, 5), partition.ints(0).boxed().toList());
+        assertEquals(1, partition.count(-1));
+    }
+
+    @Test
+    void testMixedSchemasAreRejected() {
+        List<Union> unions = unions(10_000);
+        unions.set(9_000, Union.ofTypes(String.class));
+        assertThrows(IllegalArgumentException.class, () -> UnionStreams.partition(SCHEMA, unions));
+    }
+}
@@ -2,6 +2,12 @@ package net.jonathangiles.test.union;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -263,8 +269,49 @@ public class UnionTest {
         Union union = Union.ofTypes(String.class, Integer.class, Double.class);
 
         // setValue(null) should throw an exception, check for it
-        assertThrows(NullPointerException.class, () -> union.setValue(null));
+        InvalidTypeException e = assertThrows(InvalidTypeException.class, () -> union.setValue(null));
+        assertEquals("Invalid type: null", e.getMessage());
+        assertNull(e.getValueClass());
         assertNull(union.getValue());
+        assertEquals(-1, union.trySetValue(null));
+    }
+
+    @Test
+    void testTrySetValue() {
+        Union union = Union.ofTypes(String.class, int.class, new ParameterizedTypeImpl(List.class, Double.class));
+        assertEquals(0, union.trySetValue("Hello"));
+        assertEquals(1, union.trySetValue(42));
+        assertEquals(42, union.getInt());
+
+        // a rejected value leaves the union unchanged
+        assertEquals(-1, union.trySetValue(42L));
+        assertEquals(-1, union.trySetValue(List.of("a")));
+        assertEquals(1, union.getTag());
+        assertEquals(42, union.getInt());
+
+        assertEquals(2, union.trySetValue(List.of(1.0, 2.0)));
+        assertEquals(List.of(1.0, 2.0), union.getValue());
+    }
+
+    @Test
+    void testStacklessRejection() {
+        UnionSchema schema = UnionSchema.of(String.class, Integer.class);
+        Union union = Union.ofSchema(schema);
+        InvalidTypeException e = assertThrows(InvalidTypeException.class, () -> union.setValue(42L));
+        assertEquals("Invalid type: java.lang.Long", e.getMessage());
+        assertEquals(Long.class, e.getValueClass());
+        assertNotEquals(0, e.getStackTrace().length);
+
+        Union stackless = Union.ofSchema(schema.withStacklessRejection(true));
+        e = assertThrows(InvalidTypeException.class, () -> stackless.setValue(42L));
+        assertEquals("Invalid type: java.lang.Long", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+
+        e = assertThrows(InvalidTypeException.class,
+            () -> Union.setAll(new Union[] { stackless, stackless }, new Object[] { "a", 1.5 }));
+        assertEquals("Invalid type: java.lang.Double at index 1", e.getMessage());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("a", stackless.getValue());
     }
 
     @Test
@@ -340,4 +387,225 @@ public class UnionTest {
         assertEquals(setOfString, union.getType());
         assertEquals(stringSet, union.getValue(setOfString));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSetValueUsesFirstDeclaredMatch() {
+        Union union = Union.ofTypes(Number.class, Integer.class, Object.class);
+        union.setValue(42);
+        assertEquals(Number.class, union.getType());
+
+        union.setValue("Hello");
+        assertEquals(Object.class, union.getType());
+    }
+
+    @Test
+    void testSetValueFallsThroughParameterizedTypeToClass() {
+        ParameterizedTypeImpl listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        Union union = Union.ofTypes(listOfString, Collection.class);
+
+        union.setValue(List.of("Hello"));
+        assertEquals(listOfString, union.getType());
+
+        union.setValue(List.of(1, 2));
+        assertEquals(Collection.class, union.getType());
+    }
+
+    @Test
+    void testUnionsWithSameTypesShareDispatch() {
+        Union first = Union.ofTypes(String.class, int.class);
+        Union second = Union.ofTypes(String.class, int.class);
+
+        first.setValue(1);
+        second.setValue("Hello");
+        assertEquals(int.class, first.getType());
+        assertEquals(String.class, second.getType());
+        assertThrows(IllegalArgumentException.class, () -> second.setValue(1L));
+    }
+
+    @Test
+    void testPrimitiveSettersAndGetters() {
+        Union union = Union.ofTypes(int.class, long.class, float.class, double.class);
+
+        union.setInt(42);
+        assertEquals(int.class, union.getType());
+        assertEquals(42, union.getInt());
+        assertEquals(42, (int) union.getValue());
+
+        union.setLong(1L << 40);
+        assertEquals(long.class, union.getType());
+        assertEquals(1L << 40, union.getLong());
+
+        union.setFloat(1.5f);
+        assertEquals(float.class, union.getType());
+        assertEquals(1.5f, union.getFloat());
+        assertEquals(1.5f, union.getValue(float.class));
+
+        union.setDouble(-0.0);
+        assertEquals(double.class, union.getType());
+        assertEquals(-0.0, union.getDouble());
+        assertThrows(IllegalArgumentException.class, union::getInt);
+    }
+
+    @Test
+    void testPrimitiveGettersAfterBoxedSetValue() {
+        Union union = Union.ofTypes(String.class, int.class, double.class);
+        union.setValue(42);
+        assertEquals(42, union.getInt());
+        assertTrue(union.tryConsume(value -> assertEquals(42, value), int.class));
+        assertEquals("Union{types=[class java.lang.String, int, double], type=int, value=42}", union.toString());
+
+        union.setValue(3.14);
+        assertEquals(3.14, union.getDouble());
+    }
+
+    @Test
+    void testPrimitiveSettersWithWrapperMembers() {
+        Union union = Union.ofTypes(String.class, Integer.class, Double.class);
+        union.setInt(42);
+        assertEquals(Integer.class, union.getType());
+        assertEquals(42, union.getInt());
+        assertEquals(42, union.getValue(Integer.class));
+
+        assertThrows(IllegalArgumentException.class, () -> union.setLong(42L));
+        assertEquals(42, union.getInt());
+    }
+
+    @Test
+    void testVerifiedGenericTypeIsNotRescannedOnRead() {
+        ParameterizedTypeImpl listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        ParameterizedTypeImpl listOfInteger = new ParameterizedTypeImpl(List.class, Integer.class);
+        Union union = Union.ofTypes(listOfString, listOfInteger);
+
+        CountingList<String> list = new CountingList<>(List.of("Hello", "World"));
+        union.setValue(list);
+        int reads = list.reads;
+        assertTrue(reads > 0);
+
+        assertSame(list, union.getValue(listOfString));
+        assertSame(list, union.getValue(List.class, String.class));
+        assertTrue(union.tryConsume(value -> assertSame(list, value), listOfString));
+        assertEquals(reads, list.reads);
+
+        // asking for a type other than the verified one still inspects the value
+        assertFalse(union.tryConsume(value -> fail("Should not consume List<Integer>"), listOfInteger));
+        assertTrue(list.reads > reads);
+    }
+
+    @Test
+    void testRevalidateAfterMutation() {
+        ParameterizedTypeImpl listOfString = new ParameterizedTypeImpl(List.class, String.class);
+        ParameterizedTypeImpl listOfInteger = new ParameterizedTypeImpl(List.class, Integer.class);
+        Union union = Union.ofTypes(listOfString, listOfInteger);
+
+        List<Object> list = new ArrayList<>(List.of("Hello"));
+        union.setValue(list);
+        assertEquals(listOfString, union.getType());
+
+        list.set(0, 42);
+        assertTrue(union.revalidate());
+        assertEquals(listOfInteger, union.getType());
+
+        list.add("Hello");
+        assertFalse(union.revalidate());
+        assertEquals(listOfInteger, union.getType());
+    }
+
+    @Test
+    void testSetAll() {
+        UnionSchema schema = UnionSchema.of(int.class, String.class, Types.parameterized(List.class, String.class));
+        Union[] unions = new Union[6];
+        for (int i = 0; i < unions.length; i++) {
+            unions[i] = Union.ofSchema(schema);
+        }
+        Object[] values = { 1, 2, "a", List.of("b"), List.of("c"), 3 };
+        Union.setAll(unions, values);
+        int[] tags = new int[unions.length];
+        for (int i = 0; i < unions.length; i++) {
+            tags[i] = unions[i].getTag();
+            assertEquals(values[i], unions[i].getValue());
+        }
+        assertArrayEquals(new int[] { 0, 0, 1, 2, 2, 0 }, tags);
+
+        // the generic member is still checked per value within a run of lists
+        Object[] invalid = { 4, 5, "d", List.of("e"), List.of(6), 7 };
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> Union.setAll(unions, invalid));
+        assertTrue(e.getMessage().endsWith("at index 4"), e.getMessage());
+        assertEquals(List.of("e"), unions[3].getValue());
+        assertEquals(List.of("c"), unions[4].getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> Union.setAll(unions, new Object[1]));
+    }
+
+    @Test
+    void testExtract() {
+        UnionSchema schema = UnionSchema.of(int.class, Long.class, double.class, String.class);
+        Object[] values = { 1, "a", 2L, 3, 4.5, 5, 6L, 7.5 };
+        Union[] unions = new Union[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unions[i] = Union.ofSchema(schema);
+        }
+        Union.setAll(unions, values);
+
+        int[] ints = new int[values.length];
+        assertEquals(3, Union.extractInts(unions, ints, 0));
+        assertArrayEquals(new int[] { 1, 3, 5 }, Arrays.copyOf(ints, 3));
+
+        long[] longs = new long[2];
+        assertEquals(2, Union.extractLongs(unions, longs, 1));
+        assertArrayEquals(new long[] { 2L, 6L }, longs);
+
+        double[] doubles = new double[2];
+        assertEquals(2, Union.extractDoubles(unions, doubles, 2));
+        assertArrayEquals(new double[] { 4.5, 7.5 }, doubles);
+
+        assertThrows(IllegalArgumentException.class, () -> Union.extractInts(unions, ints, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> Union.extractInts(unions, new int[2], 0));
+    }
+
+    private static final class CountingList<E> extends AbstractList<E> {
+        private final List<E> delegate;
+        private int reads;
+
+        CountingList(List<E> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public E get(int index) {
+            reads++;
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
+
+    @Test
+    void testFormatToMatchesToString() throws IOException {
+        Union union = Union.ofTypes(float.class, boolean.class, char.class, String.class,
+            Types.parameterized(List.class, Integer.class));
+        assertEquals(union.toString(), union.formatTo(new StringBuilder()).toString());
+        assertEquals("Union{types=[float, boolean, char, class java.lang.String, java.util.List<java.lang.Integer>], "
+            + "value=null}", union.toString());
+
+        Object[] values = { 1.5f, true, 'x', "Hello", List.of(1, 2) };
+        String[] rendered = { "1.5", "true", "x", "Hello", "[1, 2]" };
+        for (int i = 0; i < values.length; i++) {
+            union.setValue(values[i]);
+            String expected = "Union{types=" + union.getTypes() + ", type=" + union.getType().getTypeName()
+                + ", value=" + rendered[i] + "}";
+            assertEquals(expected, union.toString());
+
+            StringBuilder sb = new StringBuilder("prefix ");
+            assertSame(sb, union.formatTo(sb));
+            assertEquals("prefix " + expected, sb.toString());
+
+            StringWriter writer = new StringWriter();
+            assertSame(writer, union.formatTo(writer));
+            assertEquals(expected, writer.toString());
+        }
+    }
+}
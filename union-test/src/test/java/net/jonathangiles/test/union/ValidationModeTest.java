@@ -0,0 +1,109 @@
+package net.jonathangiles.test.union;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationModeTest {
+    private static final ParameterizedTypeImpl LIST_OF_STRING = new ParameterizedTypeImpl(List.class, String.class);
+    private static final ParameterizedTypeImpl LIST_OF_FLOAT = new ParameterizedTypeImpl(List.class, Float.class);
+
+    @Test
+    void testSchemasAreInternedPerMode() {
+        UnionSchema full = UnionSchema.of(LIST_OF_STRING, LIST_OF_FLOAT);
+        assertSame(ValidationMode.FULL, full.getValidationMode());
+        assertSame(full, full.withValidationMode(ValidationMode.FULL));
+
+        UnionSchema sampled = full.withValidationMode(ValidationMode.sampled(8));
+        assertNotSame(full, sampled);
+        assertSame(sampled, UnionSchema.of(ValidationMode.sampled(8), LIST_OF_STRING, LIST_OF_FLOAT));
+        assertEquals(ValidationMode.sampled(8), sampled.getValidationMode());
+        assertSame(full.getTypes().get(0), sampled.getTypes().get(0));
+    }
+
+    @Test
+    void testSampledRequiresPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> ValidationMode.sampled(0));
+        assertEquals("SAMPLED(4)", ValidationMode.sampled(4).toString());
+    }
+
+    @Test
+    void testFullRejectsAnyMismatchedElement() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.FULL, LIST_OF_STRING));
+        List<Object> values = largeListOfStrings();
+        values.set(values.size() - 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(values));
+    }
+
+    @Test
+    void testSampledChecksSmallValuesInFull() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.sampled(4), LIST_OF_STRING));
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(Arrays.asList("a", "b", 3)));
+    }
+
+    @Test
+    void testSampledChecksASampleOfLargeValues() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.sampled(16), LIST_OF_STRING, LIST_OF_FLOAT));
+
+        union.setValue(largeListOfStrings());
+        assertEquals(LIST_OF_STRING, union.getType());
+
+        List<Float> floats = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            floats.add((float) i);
+        }
+        union.setValue(floats);
+        assertEquals(LIST_OF_FLOAT, union.getType());
+
+        // collections without random access are sampled from the start
+        List<Object> linked = new LinkedList<>(largeListOfStrings());
+        linked.set(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(linked));
+    }
+
+    @Test
+    void testHeadChecksFirstNonNullElement() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.HEAD, LIST_OF_STRING, LIST_OF_FLOAT));
+
+        union.setValue(Arrays.asList(null, 1.0f, "not checked"));
+        assertEquals(LIST_OF_FLOAT, union.getType());
+
+        union.setValue(Arrays.asList("Hello", 1.0f));
+        assertEquals(LIST_OF_STRING, union.getType());
+
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(List.of(1, "Hello")));
+    }
+
+    @Test
+    void testTrustedChecksOnlyRawType() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.TRUSTED, LIST_OF_STRING, LIST_OF_FLOAT));
+
+        union.setValue(List.of(1.0f, 2.0f));
+        assertEquals(LIST_OF_STRING, union.getType());
+        assertThrows(IllegalArgumentException.class, () -> union.setValue(Set.of("Hello")));
+    }
+
+    @Test
+    void testRevalidateAlwaysChecksInFull() {
+        Union union = Union.ofSchema(UnionSchema.of(ValidationMode.TRUSTED, LIST_OF_STRING, LIST_OF_FLOAT));
+        union.setValue(List.of(1.0f, 2.0f));
+        assertEquals(LIST_OF_STRING, union.getType());
+
+        assertTrue(union.revalidate());
+        assertEquals(LIST_OF_FLOAT, union.getType());
+    }
+
+    private static List<Object> largeListOfStrings() {
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add("value" + i);
+        }
+        return values;
+    }
+}